@@ -0,0 +1,102 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.openclassrooms.starterjwt.security.jwt.AuthTokenFilter;
+import com.openclassrooms.starterjwt.security.jwt.JwtTokenCache;
+import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.services.CachingUserDetailsService;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full pass of {@link AuthTokenFilter} over a mock request carrying a valid bearer token.
+ * {@code tokenCache} toggles the verified token cache (a size of 0 verifies on every request)
+ * and {@code stateless} toggles building the principal from the claims. The user details
+ * lookup is backed by a mock, so database latency is not part of the numbers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class AuthTokenFilterBenchmark {
+
+    private static final String SECRET = "benchmarkSecretKeyForJwtTokenGenerationAndValidation";
+    private static final int EXPIRATION_MS = 86400000;
+
+    @Param({"true", "false"})
+    private boolean tokenCache;
+
+    @Param({"false", "true"})
+    private boolean stateless;
+
+    private AuthTokenFilter filter;
+    private String authorization;
+
+    @Setup
+    public void setUp() throws IOException {
+        JwtUtils jwtUtils = BenchmarkFixtures.jwtUtils(SECRET, EXPIRATION_MS);
+
+        UserDetailsImpl principal = UserDetailsImpl.builder()
+                .id(1L)
+                .username("yoga@studio.com")
+                .firstName("Admin")
+                .lastName("Admin")
+                .admin(true)
+                .password("password")
+                .build();
+        Authentication authentication = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+        authorization = "Bearer " + jwtUtils.generateJwtToken(authentication);
+
+        UserDetailsServiceImpl userDetailsServiceImpl = Mockito.mock(UserDetailsServiceImpl.class);
+        Mockito.when(userDetailsServiceImpl.loadUserByUsername("yoga@studio.com")).thenReturn(principal);
+
+        filter = new AuthTokenFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(filter, "userDetailsService",
+                new CachingUserDetailsService(userDetailsServiceImpl, 10000, 300000, new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(filter, "tokenCache",
+                new JwtTokenCache(tokenCache ? 10000 : 0, 600000, EXPIRATION_MS, new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(filter, "statelessPrincipal", stateless);
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * A fresh request per call, as {@code OncePerRequestFilter} marks the request it has seen.
+     */
+    @Benchmark
+    public Authentication doFilter() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/session");
+        request.addHeader("Authorization", authorization);
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Benchmark
+    public Authentication doFilterWithoutToken() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/session");
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
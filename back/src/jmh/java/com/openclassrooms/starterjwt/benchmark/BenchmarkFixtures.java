@@ -0,0 +1,20 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static JwtUtils jwtUtils(String secret, int expirationMs) throws IOException {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", secret);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", expirationMs);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+}
@@ -0,0 +1,111 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
+import com.openclassrooms.starterjwt.mapper.SessionMapperImpl;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.services.TeacherService;
+import com.openclassrooms.starterjwt.services.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SessionMapper} over lists of sessions with {@code participants} users each. Teacher and
+ * user lookups are served from in-memory maps, so the numbers are the mapping cost alone; in the
+ * application {@code toEntity} adds one teacher and one user query per session on top of this.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class SessionMapperBenchmark {
+
+    private static final int USERS = 1000;
+    private static final int TEACHERS = 10;
+
+    @Param({"10", "1000", "100000"})
+    private int sessions;
+
+    @Param({"50"})
+    private int participants;
+
+    private SessionMapper sessionMapper;
+    private List<Session> entities;
+    private List<SessionDto> dtos;
+
+    @Setup
+    public void setUp() {
+        Map<Long, User> users = new HashMap<>();
+        for (long id = 1; id <= USERS; id++) {
+            users.put(id, User.builder()
+                    .id(id)
+                    .email("user" + id + "@studio.com")
+                    .firstName("First" + id)
+                    .lastName("Last" + id)
+                    .password("password")
+                    .build());
+        }
+        Map<Long, Teacher> teachers = new HashMap<>();
+        for (long id = 1; id <= TEACHERS; id++) {
+            teachers.put(id, Teacher.builder().id(id).firstName("Teacher").lastName("T" + id).build());
+        }
+
+        sessionMapper = new SessionMapperImpl();
+        ReflectionTestUtils.setField(sessionMapper, "teacherService", new TeacherService(null) {
+            @Override
+            public Teacher findById(Long id) {
+                return teachers.get(id);
+            }
+        });
+        ReflectionTestUtils.setField(sessionMapper, "userService", new UserService(null, null) {
+            @Override
+            public List<User> findAllById(List<Long> ids) {
+                List<User> found = new ArrayList<>(ids.size());
+                for (Long id : ids) {
+                    found.add(users.get(id));
+                }
+                return found;
+            }
+        });
+
+        Random random = new Random(42);
+        Date date = new Date();
+        LocalDateTime now = LocalDateTime.now();
+        entities = new ArrayList<>(sessions);
+        for (long id = 1; id <= sessions; id++) {
+            List<User> sessionUsers = new ArrayList<>(participants);
+            int first = random.nextInt(USERS);
+            for (int i = 0; i < participants; i++) {
+                sessionUsers.add(users.get((long) ((first + i) % USERS) + 1));
+            }
+            entities.add(Session.builder()
+                    .id(id)
+                    .name("Session " + id)
+                    .date(date)
+                    .description("Description of session " + id)
+                    .teacher(teachers.get(id % TEACHERS + 1))
+                    .users(sessionUsers)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+        }
+        dtos = sessionMapper.toDto(entities);
+    }
+
+    @Benchmark
+    public List<SessionDto> toDto() {
+        return sessionMapper.toDto(entities);
+    }
+
+    @Benchmark
+    public List<Session> toEntity() {
+        return sessionMapper.toEntity(dtos);
+    }
+}
@@ -1,11 +1,24 @@
 package com.openclassrooms.starterjwt.controllers;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -15,13 +28,19 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.monitoring.QueryBudget;
+import com.openclassrooms.starterjwt.payload.request.BulkSignupRequest;
 import com.openclassrooms.starterjwt.payload.request.LoginRequest;
 import com.openclassrooms.starterjwt.payload.request.SignupRequest;
+import com.openclassrooms.starterjwt.payload.response.BulkSignupResponse;
 import com.openclassrooms.starterjwt.payload.response.JwtResponse;
 import com.openclassrooms.starterjwt.payload.response.MessageResponse;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.crypto.LoginThrottle;
 import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.services.CachingUserDetailsService;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import com.openclassrooms.starterjwt.services.UserImportService;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -31,58 +50,159 @@ public class AuthController {
     private final JwtUtils jwtUtils;
     private final PasswordEncoder passwordEncoder;
     private final UserRepository userRepository;
+    private final CachingUserDetailsService userDetailsService;
+    private final LoginThrottle loginThrottle;
+    private final UserImportService userImportService;
 
     AuthController(AuthenticationManager authenticationManager,
             PasswordEncoder passwordEncoder,
             JwtUtils jwtUtils,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            CachingUserDetailsService userDetailsService,
+            LoginThrottle loginThrottle,
+            UserImportService userImportService) {
         this.authenticationManager = authenticationManager;
         this.jwtUtils = jwtUtils;
         this.passwordEncoder = passwordEncoder;
         this.userRepository = userRepository;
+        this.userDetailsService = userDetailsService;
+        this.loginThrottle = loginThrottle;
+        this.userImportService = userImportService;
     }
 
+    // One USERS query, plus the update when the stored hash is re-encoded
     @PostMapping("/login")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+    @QueryBudget(2)
+    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest, HttpServletRequest request) {
+        loginThrottle.checkLogin(loginRequest.getEmail(), request.getRemoteAddr());
 
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()));
+        loginThrottle.loginSucceeded(loginRequest.getEmail());
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
         String jwt = jwtUtils.generateJwtToken(authentication);
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
 
-        boolean isAdmin = false;
-        User user = this.userRepository.findByEmail(userDetails.getUsername()).orElse(null);
-        if (user != null) {
-            isAdmin = user.isAdmin();
-        }
-
         return ResponseEntity.ok(new JwtResponse(jwt,
                 userDetails.getId(),
                 userDetails.getUsername(),
                 userDetails.getFirstName(),
                 userDetails.getLastName(),
-                isAdmin));
+                Boolean.TRUE.equals(userDetails.getAdmin())));
     }
 
+    /**
+     * Inserts the user directly and lets the unique constraint on USERS.email reject a taken
+     * email, so that concurrent sign-ups with the same email cannot both succeed.
+     */
     @PostMapping("/register")
-    public ResponseEntity<?> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
-        if (userRepository.existsByEmail(signUpRequest.getEmail())) {
-            return ResponseEntity
-                    .badRequest()
-                    .body(new MessageResponse("Error: Email is already taken!"));
-        }
+    @QueryBudget(1)
+    public ResponseEntity<?> registerUser(@Valid @RequestBody SignupRequest signUpRequest, HttpServletRequest request) {
+        loginThrottle.checkAddress(request.getRemoteAddr());
 
         // Create new user's account
-        User user = new User(signUpRequest.getEmail(),
+        User user = toUser(signUpRequest, passwordEncoder.encode(signUpRequest.getPassword()));
+
+        try {
+            userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            if (!isEmailTaken(e)) {
+                throw e;
+            }
+            return emailTaken();
+        }
+        userDetailsService.evict(user.getEmail());
+
+        return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
+    }
+
+    /**
+     * Registers the users of a studio in one transaction, for admins only. Emails that are
+     * already taken, or repeated in the request, are skipped and returned; they are compared
+     * trimmed and in lower case, as the collation of USERS.email ignores case. If one is taken
+     * concurrently, nothing is registered. The passwords are hashed in parallel on the threads
+     * of the user import, and the users are inserted with its JDBC batch, which bypasses
+     * Hibernate: the budget is the lookup of the taken emails.
+     */
+    @PostMapping("/register/bulk")
+    @QueryBudget(1)
+    public ResponseEntity<?> registerUsers(@Valid @RequestBody BulkSignupRequest bulkSignupRequest,
+            @AuthenticationPrincipal UserDetailsImpl principal) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (!Boolean.TRUE.equals(principal.getAdmin())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        Map<String, SignupRequest> requests = new LinkedHashMap<>();
+        List<String> alreadyTaken = new ArrayList<>();
+        for (SignupRequest signUpRequest : bulkSignupRequest.getUsers()) {
+            if (requests.putIfAbsent(normalize(signUpRequest.getEmail()), signUpRequest) != null) {
+                alreadyTaken.add(signUpRequest.getEmail());
+            }
+        }
+
+        Set<String> existing = userRepository.findExistingEmails(requests.keySet()).stream()
+                .map(AuthController::normalize)
+                .collect(Collectors.toSet());
+        List<SignupRequest> accepted = new ArrayList<>(requests.size());
+        for (Map.Entry<String, SignupRequest> request : requests.entrySet()) {
+            if (existing.contains(request.getKey())) {
+                alreadyTaken.add(request.getValue().getEmail());
+            } else {
+                accepted.add(request.getValue());
+            }
+        }
+
+        List<String> passwords = new ArrayList<>(accepted.size());
+        accepted.forEach(signUpRequest -> passwords.add(signUpRequest.getPassword()));
+        List<String> hashes = userImportService.encodePasswords(passwords);
+
+        try {
+            userImportService.insertAll(accepted, hashes);
+        } catch (DataIntegrityViolationException e) {
+            if (!isEmailTaken(e)) {
+                throw e;
+            }
+            return emailTaken();
+        }
+        accepted.forEach(signUpRequest -> userDetailsService.evict(signUpRequest.getEmail()));
+
+        return ResponseEntity.ok(new BulkSignupResponse(accepted.size(), alreadyTaken));
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private User toUser(SignupRequest signUpRequest, String password) {
+        return new User(signUpRequest.getEmail(),
                 signUpRequest.getLastName(),
                 signUpRequest.getFirstName(),
-                passwordEncoder.encode(signUpRequest.getPassword()),
+                password,
                 false);
+    }
 
-        userRepository.save(user);
+    /**
+     * Whether the insert was rejected by the unique constraint on USERS.email. Databases report
+     * the constraint name qualified or with a suffix, so it is matched as a part; when it was not
+     * extracted (H2, or a JDBC batch), it is looked for in the message of the driver.
+     */
+    private static boolean isEmailTaken(DataIntegrityViolationException e) {
+        String constraintName = e.getCause() instanceof ConstraintViolationException
+                ? ((ConstraintViolationException) e.getCause()).getConstraintName()
+                : null;
+        if (constraintName == null) {
+            constraintName = e.getMostSpecificCause().getMessage();
+        }
+        return constraintName != null && constraintName.toUpperCase(Locale.ROOT).contains(User.EMAIL_CONSTRAINT);
+    }
 
-        return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
+    private ResponseEntity<MessageResponse> emailTaken() {
+        return ResponseEntity
+                .badRequest()
+                .body(new MessageResponse("Error: Email is already taken!"));
     }
 }
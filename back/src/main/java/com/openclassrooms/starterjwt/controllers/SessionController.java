@@ -4,10 +4,19 @@ package com.openclassrooms.starterjwt.controllers;
 import com.openclassrooms.starterjwt.dto.SessionDto;
 import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.monitoring.QueryBudget;
+import com.openclassrooms.starterjwt.payload.response.SessionPageResponse;
+import com.openclassrooms.starterjwt.payload.response.WaitlistResponse;
+import com.openclassrooms.starterjwt.services.ParticipationStatus;
+import com.openclassrooms.starterjwt.services.SessionCursor;
 import com.openclassrooms.starterjwt.services.SessionService;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import javax.validation.Valid;
 import java.util.List;
@@ -17,6 +26,9 @@ import java.util.List;
 @RequestMapping("/api/session")
 @Log4j2
 public class SessionController {
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+
     private final SessionMapper sessionMapper;
     private final SessionService sessionService;
 
@@ -28,34 +40,75 @@ public class SessionController {
     }
 
     @GetMapping("/{id}")
+    @QueryBudget(2)
     public ResponseEntity<?> findById(@PathVariable("id") String id) {
         try {
-            Session session = this.sessionService.getById(Long.valueOf(id));
+            SessionDto session = this.sessionService.getDtoById(Long.valueOf(id));
 
             if (session == null) {
                 return ResponseEntity.notFound().build();
             }
 
-            return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
+            return ResponseEntity.ok().body(session);
         } catch (NumberFormatException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    /**
+     * Returns one page of sessions and the link to the next: by offset with {@code page}, otherwise
+     * by keyset on (date, id) from {@code cursor}. Without parameters, the first keyset page of
+     * {@link #DEFAULT_PAGE_SIZE} sessions.
+     */
     @GetMapping()
-    public ResponseEntity<?> findAll() {
-        List<Session> sessions = this.sessionService.findAll();
+    @QueryBudget(2)
+    public ResponseEntity<?> findAll(@RequestParam(value = "page", required = false) Integer page,
+                                     @RequestParam(value = "size", required = false) Integer size,
+                                     @RequestParam(value = "cursor", required = false) String cursor) {
+        int pageSize = size != null ? size : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE || (page != null && (page < 0 || cursor != null))) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            Slice<SessionDto> slice = page != null
+                    ? this.sessionService.findPage(page, pageSize)
+                    : this.sessionService.findAfter(cursor != null ? SessionCursor.decode(cursor) : null, pageSize);
+
+            return toPageResponse(slice, page, pageSize);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private ResponseEntity<?> toPageResponse(Slice<SessionDto> slice, Integer page, int pageSize) {
+        List<SessionDto> sessions = slice.getContent();
+        String nextCursor = null;
+        String next = null;
+        if (slice.hasNext()) {
+            nextCursor = SessionCursor.of(sessions.get(sessions.size() - 1)).encode();
+            UriComponentsBuilder nextUri = ServletUriComponentsBuilder.fromCurrentRequest().replaceQueryParam("size", pageSize);
+            next = page != null
+                    ? nextUri.replaceQueryParam("page", page + 1).toUriString()
+                    : nextUri.replaceQueryParam("cursor", nextCursor).toUriString();
+        }
 
-        return ResponseEntity.ok().body(this.sessionMapper.toDto(sessions));
+        SessionPageResponse body = new SessionPageResponse(sessions, slice.hasNext(), nextCursor, next);
+        if (next == null) {
+            return ResponseEntity.ok().body(body);
+        }
+
+        return ResponseEntity.ok().header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"").body(body);
     }
 
     @PostMapping()
     public ResponseEntity<?> create(@Valid @RequestBody SessionDto sessionDto) {
-        log.info(sessionDto);
+        log.debug("Creating session: name={} date={} teacher={}",
+                sessionDto.getName(), sessionDto.getDate(), sessionDto.getTeacher_id());
 
         Session session = this.sessionService.create(this.sessionMapper.toEntity(sessionDto));
 
-        log.info(session);
+        log.info("Session created: id={}", session.getId());
         return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
     }
 
@@ -71,6 +124,7 @@ public class SessionController {
     }
 
     @DeleteMapping("{id}")
+    @QueryBudget(4)
     public ResponseEntity<?> save(@PathVariable("id") String id) {
         try {
             Session session = this.sessionService.getById(Long.valueOf(id));
@@ -87,9 +141,18 @@ public class SessionController {
     }
 
     @PostMapping("{id}/participate/{userId}")
+    @QueryBudget(8)
     public ResponseEntity<?> participate(@PathVariable("id") String id, @PathVariable("userId") String userId) {
         try {
-            this.sessionService.participate(Long.parseLong(id), Long.parseLong(userId));
+            Long sessionId = Long.parseLong(id);
+            Long participantId = Long.parseLong(userId);
+            if (this.sessionService.participate(sessionId, participantId) == ParticipationStatus.WAITLISTED) {
+                Long position = this.sessionService.getWaitlistPosition(sessionId, participantId);
+                // null if a cancellation has promoted the user in the meantime
+                if (position != null) {
+                    return ResponseEntity.accepted().body(new WaitlistResponse(position));
+                }
+            }
 
             return ResponseEntity.ok().build();
         } catch (NumberFormatException e) {
@@ -98,6 +161,7 @@ public class SessionController {
     }
 
     @DeleteMapping("{id}/participate/{userId}")
+    @QueryBudget(7)
     public ResponseEntity<?> noLongerParticipate(@PathVariable("id") String id, @PathVariable("userId") String userId) {
         try {
             this.sessionService.noLongerParticipate(Long.parseLong(id), Long.parseLong(userId));
@@ -107,4 +171,23 @@ public class SessionController {
             return ResponseEntity.badRequest().build();
         }
     }
+
+    /**
+     * Position of the user on the waitlist of the session, or 404 if the user is not waiting.
+     */
+    @GetMapping("{id}/waitlist/{userId}")
+    @QueryBudget(1)
+    public ResponseEntity<?> waitlistPosition(@PathVariable("id") String id, @PathVariable("userId") String userId) {
+        try {
+            Long position = this.sessionService.getWaitlistPosition(Long.parseLong(id), Long.parseLong(userId));
+
+            if (position == null) {
+                return ResponseEntity.notFound().build();
+            }
+
+            return ResponseEntity.ok().body(new WaitlistResponse(position));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 }
@@ -2,6 +2,7 @@ package com.openclassrooms.starterjwt.controllers;
 
 import com.openclassrooms.starterjwt.mapper.TeacherMapper;
 import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.monitoring.QueryBudget;
 import com.openclassrooms.starterjwt.services.TeacherService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -22,6 +23,7 @@ public class TeacherController {
     }
 
     @GetMapping("/{id}")
+    @QueryBudget(1)
     public ResponseEntity<?> findById(@PathVariable("id") String id) {
         try {
             Teacher teacher = this.teacherService.findById(Long.valueOf(id));
@@ -37,6 +39,7 @@ public class TeacherController {
     }
 
     @GetMapping()
+    @QueryBudget(1)
     public ResponseEntity<?> findAll() {
         List<Teacher> teachers = this.teacherService.findAll();
 
@@ -2,13 +2,20 @@ package com.openclassrooms.starterjwt.controllers;
 
 import com.openclassrooms.starterjwt.mapper.UserMapper;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.monitoring.QueryBudget;
+import com.openclassrooms.starterjwt.security.jwt.JwtTokenCache;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import com.openclassrooms.starterjwt.services.UserImportService;
 import com.openclassrooms.starterjwt.services.UserService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
 import java.util.Objects;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -17,15 +24,22 @@ import java.util.Objects;
 public class UserController {
     private final UserMapper userMapper;
     private final UserService userService;
+    private final JwtTokenCache jwtTokenCache;
+    private final UserImportService userImportService;
 
 
     public UserController(UserService userService,
-                             UserMapper userMapper) {
+                             UserMapper userMapper,
+                             JwtTokenCache jwtTokenCache,
+                             UserImportService userImportService) {
         this.userMapper = userMapper;
         this.userService = userService;
+        this.jwtTokenCache = jwtTokenCache;
+        this.userImportService = userImportService;
     }
 
     @GetMapping("/{id}")
+    @QueryBudget(1)
     public ResponseEntity<?> findById(@PathVariable("id") String id) {
         try {
             User user = this.userService.findById(Long.valueOf(id));
@@ -41,6 +55,7 @@ public class UserController {
     }
 
     @DeleteMapping("{id}")
+    @QueryBudget(2)
     public ResponseEntity<?> save(@PathVariable("id") String id) {
         try {
             User user = this.userService.findById(Long.valueOf(id));
@@ -56,9 +71,28 @@ public class UserController {
             }
 
             this.userService.delete(Long.parseLong(id));
+            this.jwtTokenCache.invalidateUser(user.getEmail());
             return ResponseEntity.ok().build();
         } catch (NumberFormatException e) {
             return ResponseEntity.badRequest().build();
         }
     }
+
+    /**
+     * Imports users from the request body, read as a stream, for admins only. Not under a
+     * {@link QueryBudget}: the import runs one lookup and one batch insert per
+     * {@code oc.app.userImport.batchSize} rows.
+     */
+    @PostMapping(value = "/import", consumes = { "text/csv", "application/x-ndjson" })
+    public ResponseEntity<?> importUsers(HttpServletRequest request,
+                                         @AuthenticationPrincipal UserDetailsImpl principal) throws IOException {
+        if (principal == null || !Boolean.TRUE.equals(principal.getAdmin())) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        if (request.getContentType().startsWith("text/csv")) {
+            return ResponseEntity.ok(this.userImportService.importCsv(request.getInputStream()));
+        }
+        return ResponseEntity.ok(this.userImportService.importNdjson(request.getInputStream()));
+    }
 }
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
@@ -33,7 +34,17 @@ public class SessionDto {
 
     private List<Long> users;
 
+    @Min(1)
+    private Integer capacity;
+
+    private boolean waitlistEnabled;
+
     private LocalDateTime createdAt;
 
     private LocalDateTime updatedAt;
+
+    public SessionDto(Long id, String name, Date date, Long teacher_id, String description, Integer capacity,
+                      boolean waitlistEnabled, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(id, name, date, teacher_id, description, null, capacity, waitlistEnabled, createdAt, updatedAt);
+    }
 }
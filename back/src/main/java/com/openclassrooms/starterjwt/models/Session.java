@@ -3,12 +3,15 @@ package com.openclassrooms.starterjwt.models;
 
 import lombok.*;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 import java.time.LocalDateTime;
@@ -16,7 +19,9 @@ import java.util.Date;
 import java.util.List;
 
 @Entity
-@Table(name = "SESSIONS")
+@Table(name = "SESSIONS", indexes = {
+        @Index(name = "IDX_SESSIONS_DATE_ID", columnList = "date, id"),
+        @Index(name = "IDX_SESSIONS_TEACHER_ID", columnList = "teacher_id")})
 @EntityListeners(AuditingEntityListener.class)
 @Data
 @Accessors(chain = true)
@@ -41,11 +46,36 @@ public class Session {
     @Size(max = 2500)
     private String description;
 
+    /**
+     * Maximum number of participants, or null for no limit.
+     */
+    @Min(1)
+    private Integer capacity;
+
+    /**
+     * Whether users joining a full session are queued on its waitlist instead of being refused.
+     */
+    @Column(name = "waitlist_enabled", nullable = false)
+    private boolean waitlistEnabled;
+
+    /**
+     * Number of participants, maintained by the database on participation so that seats can be
+     * reserved with a single conditional update.
+     */
+    @ColumnDefault("0")
+    @Column(name = "seats_taken", nullable = false, insertable = false, updatable = false)
+    private Integer seatsTaken;
+
     @OneToOne
     @JoinColumn(name = "teacher_id", referencedColumnName = "id")
     private Teacher teacher;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    /**
+     * Keyed by {@code PK_PARTICIPATE (session_id, user_id)}, created by the V2 migration.
+     */
+    @ManyToMany
+    @BatchSize(size = 50)
+    @ToString.Exclude
     @JoinTable(
             name = "PARTICIPATE",
             joinColumns = @JoinColumn( name = "session_id" ),
@@ -13,7 +13,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "USERS", uniqueConstraints = {
-    @UniqueConstraint(columnNames = "email")
+    @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email")
 })
 @Data
 @Accessors(chain = true)
@@ -25,6 +25,8 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @ToString
 public class User {
+  public static final String EMAIL_CONSTRAINT = "UK_USERS_EMAIL";
+
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
@@ -0,0 +1,24 @@
+package com.openclassrooms.starterjwt.monitoring;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maximum number of SQL statements a call of the annotated bean method may execute, counting
+ * those of the methods it calls. Exceeding it is logged and counted in
+ * {@code query.budget.exceeded}; with {@code oc.app.queryBudget.strict}, as in the tests, the
+ * call fails with a {@link QueryBudgetExceededException} instead.
+ *
+ * <p>The budget should be the number of statements of the most expensive path, so that an N+1
+ * pattern (a statement per row) shows up as soon as a test goes through that path with more than
+ * one row.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface QueryBudget {
+    int value();
+}
@@ -0,0 +1,67 @@
+package com.openclassrooms.starterjwt.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Enforces {@link QueryBudget}. Runs outside the transaction of the method, so the statements
+ * flushed at commit are counted. Calls that end with an exception are not checked.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class QueryBudgetAspect {
+    static final String EXCEEDED_METRIC = "query.budget.exceeded";
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryBudgetAspect.class);
+
+    private final MeterRegistry meterRegistry;
+
+    private final boolean strict;
+
+    public QueryBudgetAspect(MeterRegistry meterRegistry,
+                             @Value("${oc.app.queryBudget.strict:false}") boolean strict) {
+        this.meterRegistry = meterRegistry;
+        this.strict = strict;
+    }
+
+    @Around("@annotation(budget)")
+    public Object enforce(ProceedingJoinPoint joinPoint, QueryBudget budget) throws Throwable {
+        long before = StatementCounter.count();
+        Object result = joinPoint.proceed();
+        long statements = StatementCounter.count() - before;
+
+        if (statements > budget.value()) {
+            exceeded(joinPoint.getSignature().getDeclaringType().getSimpleName() + "."
+                    + joinPoint.getSignature().getName(), budget.value(), statements);
+        }
+
+        return result;
+    }
+
+    private void exceeded(String method, int budget, long statements) {
+        Counter.builder(EXCEEDED_METRIC)
+                .description("Calls that executed more SQL statements than their declared budget")
+                .tag("method", method)
+                .register(meterRegistry)
+                .increment();
+        logger.warn("Query budget exceeded: {} {} {}",
+                kv("method", method), kv("budget", budget), kv("statements", statements));
+
+        if (strict) {
+            throw new QueryBudgetExceededException(
+                    method + " executed " + statements + " SQL statements, its budget is " + budget);
+        }
+    }
+}
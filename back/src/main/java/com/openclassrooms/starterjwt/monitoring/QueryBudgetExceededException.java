@@ -0,0 +1,7 @@
+package com.openclassrooms.starterjwt.monitoring;
+
+public class QueryBudgetExceededException extends IllegalStateException {
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,122 @@
+package com.openclassrooms.starterjwt.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Opens the {@link RequestTimings} of each request. Runs ahead of the security filter chain, so
+ * token verification and principal loading in the {@code AuthTokenFilter} are accounted for.
+ *
+ * <p>The breakdown is sent in a {@code Server-Timing} header, written just before the response
+ * is committed. A body larger than the response buffer is committed while it is being written
+ * and then goes out without the header. Requests slower than {@code oc.app.slowRequestMs} are
+ * logged with the same breakdown. The number of SQL statements of each request mapped to a
+ * handler is recorded in {@code http.server.requests.statements}, per method and URI pattern.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 10)
+public class RequestTimingFilter extends OncePerRequestFilter {
+    static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    static final String STATEMENTS_METRIC = "http.server.requests.statements";
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestTimingFilter.class);
+
+    private final MeterRegistry meterRegistry;
+
+    private final long slowRequestNanos;
+
+    private final boolean serverTimingHeader;
+
+    public RequestTimingFilter(MeterRegistry meterRegistry,
+                               @Value("${oc.app.slowRequestMs:500}") long slowRequestMs,
+                               @Value("${oc.app.serverTimingHeader:true}") boolean serverTimingHeader) {
+        this.meterRegistry = meterRegistry;
+        this.slowRequestNanos = TimeUnit.MILLISECONDS.toNanos(slowRequestMs);
+        this.serverTimingHeader = serverTimingHeader;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestTimings timings = RequestTimings.start();
+        ServerTimingResponse timedResponse = new ServerTimingResponse(response, timings);
+        try {
+            filterChain.doFilter(request, serverTimingHeader ? timedResponse : response);
+        } finally {
+            RequestTimings.end(RequestTimings.Phase.CONTROLLER);
+            if (serverTimingHeader) {
+                timedResponse.writeHeader();
+            }
+            RequestTimings.clear();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern != null) {
+                DistributionSummary.builder(STATEMENTS_METRIC)
+                        .description("SQL statements executed per request")
+                        .tag("method", request.getMethod())
+                        .tag("uri", pattern.toString())
+                        .register(meterRegistry)
+                        .record(timings.statements());
+            }
+            if (timings.totalNanos() >= slowRequestNanos) {
+                logSlowRequest(request, response, timings);
+            }
+        }
+    }
+
+    private void logSlowRequest(HttpServletRequest request, HttpServletResponse response, RequestTimings timings) {
+        logger.warn("Slow request: {} {} {} {} {} {} {} {} {} {} {}",
+                kv("method", request.getMethod()),
+                kv("uri", request.getRequestURI()),
+                kv("pattern", request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE)),
+                kv("status", response.getStatus()),
+                kv("total_ms", RequestTimings.millis(timings.totalNanos())),
+                kv("token_ms", RequestTimings.millis(timings.nanos(RequestTimings.Phase.TOKEN))),
+                kv("principal_ms", RequestTimings.millis(timings.nanos(RequestTimings.Phase.PRINCIPAL))),
+                kv("controller_ms", RequestTimings.millis(timings.nanos(RequestTimings.Phase.CONTROLLER))),
+                kv("sql_ms", RequestTimings.millis(timings.nanos(RequestTimings.Phase.SQL))),
+                kv("sql_statements", timings.statements()),
+                kv("serialization_ms", RequestTimings.millis(timings.nanos(RequestTimings.Phase.SERIALIZATION))));
+    }
+
+    private static final class ServerTimingResponse extends OnCommittedResponseWrapper {
+        private final RequestTimings timings;
+
+        private boolean headerWritten;
+
+        ServerTimingResponse(HttpServletResponse response, RequestTimings timings) {
+            super(response);
+            this.timings = timings;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            writeHeader();
+        }
+
+        void writeHeader() {
+            if (!headerWritten && !isCommitted()) {
+                setHeader(SERVER_TIMING_HEADER, timings.toServerTiming());
+            }
+            headerWritten = true;
+        }
+    }
+}
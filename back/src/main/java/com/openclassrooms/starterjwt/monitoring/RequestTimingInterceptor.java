@@ -0,0 +1,24 @@
+package com.openclassrooms.starterjwt.monitoring;
+
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Times the controller phase, from the handler being picked to the request being completed.
+ */
+class RequestTimingInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestTimings.begin(RequestTimings.Phase.CONTROLLER);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        RequestTimings.end(RequestTimings.Phase.CONTROLLER);
+    }
+}
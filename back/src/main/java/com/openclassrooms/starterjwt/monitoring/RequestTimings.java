@@ -0,0 +1,134 @@
+package com.openclassrooms.starterjwt.monitoring;
+
+import java.util.Locale;
+
+/**
+ * Wall time of the request being served on the current thread, split into phases. The phases
+ * nest rather than add up: SQL runs inside principal loading and the controller, and the
+ * controller time excludes the serialization of its response body.
+ *
+ * <p>Outside of a request started by {@link RequestTimingFilter} every call is a no-op, so
+ * the recording points can stay on paths shared with background work. A phase must not be
+ * begun again before it has ended.
+ */
+public final class RequestTimings {
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    public enum Phase {
+        TOKEN("token"),
+        PRINCIPAL("principal"),
+        CONTROLLER("controller"),
+        SQL("sql"),
+        SERIALIZATION("serialization");
+
+        private final String metricName;
+
+        Phase(String metricName) {
+            this.metricName = metricName;
+        }
+
+        public String getMetricName() {
+            return metricName;
+        }
+    }
+
+    private final long startNanos;
+
+    private final long[] phaseNanos = new long[Phase.values().length];
+
+    private final long[] openSinceNanos = new long[Phase.values().length];
+
+    private int statements;
+
+    private long handlerSerializationNanos;
+
+    private RequestTimings(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    static RequestTimings start() {
+        RequestTimings timings = new RequestTimings(System.nanoTime());
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    public static void begin(Phase phase) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.openSinceNanos[phase.ordinal()] = System.nanoTime();
+            if (phase == Phase.CONTROLLER) {
+                timings.handlerSerializationNanos = timings.nanos(Phase.SERIALIZATION);
+            }
+        }
+    }
+
+    public static void end(Phase phase) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null && timings.openSinceNanos[phase.ordinal()] != 0) {
+            timings.phaseNanos[phase.ordinal()] += timings.openNanos(phase);
+            timings.openSinceNanos[phase.ordinal()] = 0;
+        }
+    }
+
+    static void recordStatement(long elapsedNanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.phaseNanos[Phase.SQL.ordinal()] += elapsedNanos;
+            timings.statements++;
+        }
+    }
+
+    private long openNanos(Phase phase) {
+        long openSince = openSinceNanos[phase.ordinal()];
+        if (openSince == 0) {
+            return 0;
+        }
+        long nanos = System.nanoTime() - openSince;
+        if (phase == Phase.CONTROLLER) {
+            nanos -= nanos(Phase.SERIALIZATION) - handlerSerializationNanos;
+        }
+        return nanos;
+    }
+
+    /**
+     * Time spent in the phase so far, a phase still open counting up to now.
+     */
+    long nanos(Phase phase) {
+        return phaseNanos[phase.ordinal()] + openNanos(phase);
+    }
+
+    int statements() {
+        return statements;
+    }
+
+    long totalNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Value of the {@code Server-Timing} header, durations in milliseconds.
+     */
+    String toServerTiming() {
+        StringBuilder header = new StringBuilder(160);
+        for (Phase phase : Phase.values()) {
+            header.append(phase.getMetricName());
+            if (phase == Phase.SQL) {
+                header.append(";desc=\"").append(statements).append(" statements\"");
+            }
+            header.append(";dur=").append(millis(nanos(phase))).append(", ");
+        }
+        return header.append("total;dur=").append(millis(totalNanos())).toString();
+    }
+
+    static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.2f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,69 @@
+package com.openclassrooms.starterjwt.monitoring;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps one event in {@code sampleRate} of the loggers under {@code loggerPrefix}, and at most
+ * {@code maxPerSecond} of those. Turbo filters run before the logging event is created, so a
+ * dropped statement costs a counter increment. Level checks ({@code isDebugEnabled()}) and
+ * disabled levels are not counted.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private final AtomicLong seen = new AtomicLong();
+    private final AtomicLong second = new AtomicLong(-1);
+    private final AtomicInteger keptThisSecond = new AtomicInteger();
+    private final LongSupplier clock;
+
+    private String loggerPrefix;
+    private int sampleRate = 1;
+    private int maxPerSecond = Integer.MAX_VALUE;
+
+    public SamplingTurboFilter() {
+        this(System::currentTimeMillis);
+    }
+
+    SamplingTurboFilter(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (!isStarted() || format == null || loggerPrefix == null
+                || !logger.getName().startsWith(loggerPrefix)
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+
+        if (seen.incrementAndGet() % sampleRate != 0) {
+            return FilterReply.DENY;
+        }
+
+        long now = clock.getAsLong() / 1000;
+        long current = second.get();
+        if (current != now && second.compareAndSet(current, now)) {
+            keptThisSecond.set(0);
+        }
+        return keptThisSecond.incrementAndGet() <= maxPerSecond ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    public void setLoggerPrefix(String loggerPrefix) {
+        this.loggerPrefix = loggerPrefix;
+    }
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+
+    public void setMaxPerSecond(int maxPerSecond) {
+        this.maxPerSecond = Math.max(0, maxPerSecond);
+    }
+}
@@ -0,0 +1,20 @@
+package com.openclassrooms.starterjwt.monitoring;
+
+/**
+ * Running count of the SQL statements executed by Hibernate on the current thread, whether or not
+ * it is serving a request. Callers compare two readings.
+ */
+final class StatementCounter {
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    private StatementCounter() {
+    }
+
+    static void increment() {
+        COUNT.get()[0]++;
+    }
+
+    static long count() {
+        return COUNT.get()[0];
+    }
+}
@@ -0,0 +1,36 @@
+package com.openclassrooms.starterjwt.monitoring;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Counts each JDBC statement and batch executed by Hibernate on the thread, and adds it to the SQL
+ * phase of the current request. Registered for every session through
+ * {@code hibernate.session.events.auto}.
+ */
+public class StatementTimingListener extends BaseSessionEventListener {
+    private long executeStartNanos;
+
+    private long batchStartNanos;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        StatementCounter.increment();
+        RequestTimings.recordStatement(System.nanoTime() - executeStartNanos);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        StatementCounter.increment();
+        RequestTimings.recordStatement(System.nanoTime() - batchStartNanos);
+    }
+}
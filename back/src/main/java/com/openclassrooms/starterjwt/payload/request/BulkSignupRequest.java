@@ -0,0 +1,15 @@
+package com.openclassrooms.starterjwt.payload.request;
+
+import java.util.List;
+
+import javax.validation.Valid;
+import javax.validation.constraints.*;
+
+import lombok.Data;
+
+@Data
+public class BulkSignupRequest {
+  @NotEmpty
+  @Size(max = 100)
+  private List<@Valid @NotNull SignupRequest> users;
+}
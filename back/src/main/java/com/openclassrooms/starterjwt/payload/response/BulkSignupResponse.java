@@ -0,0 +1,17 @@
+package com.openclassrooms.starterjwt.payload.response;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class BulkSignupResponse {
+  private final int registered;
+
+  private final List<String> alreadyTaken;
+
+  public BulkSignupResponse(int registered, List<String> alreadyTaken) {
+    this.registered = registered;
+    this.alreadyTaken = alreadyTaken;
+  }
+}
@@ -0,0 +1,24 @@
+package com.openclassrooms.starterjwt.payload.response;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class SessionPageResponse {
+  private final List<SessionDto> content;
+
+  private final boolean hasNext;
+
+  private final String nextCursor;
+
+  private final String next;
+
+  public SessionPageResponse(List<SessionDto> content, boolean hasNext, String nextCursor, String next) {
+    this.content = content;
+    this.hasNext = hasNext;
+    this.nextCursor = nextCursor;
+    this.next = next;
+  }
+}
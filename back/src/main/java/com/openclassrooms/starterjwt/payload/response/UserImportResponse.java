@@ -0,0 +1,38 @@
+package com.openclassrooms.starterjwt.payload.response;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class UserImportResponse {
+  private final int imported;
+
+  private final int failed;
+
+  /**
+   * The first rejected rows, {@code failed} counts all of them.
+   */
+  private final List<RowError> errors;
+
+  public UserImportResponse(int imported, int failed, List<RowError> errors) {
+    this.imported = imported;
+    this.failed = failed;
+    this.errors = errors;
+  }
+
+  @Getter
+  public static class RowError {
+    private final int row;
+
+    private final String email;
+
+    private final List<String> messages;
+
+    public RowError(int row, String email, List<String> messages) {
+      this.row = row;
+      this.email = email;
+      this.messages = messages;
+    }
+  }
+}
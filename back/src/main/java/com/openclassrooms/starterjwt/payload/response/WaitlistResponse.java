@@ -0,0 +1,12 @@
+package com.openclassrooms.starterjwt.payload.response;
+
+import lombok.Getter;
+
+@Getter
+public class WaitlistResponse {
+  private final long position;
+
+  public WaitlistResponse(long position) {
+    this.position = position;
+  }
+}
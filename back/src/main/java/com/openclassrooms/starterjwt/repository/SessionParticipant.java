@@ -0,0 +1,10 @@
+package com.openclassrooms.starterjwt.repository;
+
+/**
+ * One row of PARTICIPATE, read without loading the session or the user.
+ */
+public interface SessionParticipant {
+    Long getSessionId();
+
+    Long getUserId();
+}
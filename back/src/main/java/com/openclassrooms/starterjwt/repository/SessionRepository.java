@@ -1,9 +1,134 @@
 package com.openclassrooms.starterjwt.repository;
 
+import com.openclassrooms.starterjwt.dto.SessionDto;
 import com.openclassrooms.starterjwt.models.Session;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hibernate.annotations.QueryHints.NATIVE_SPACES;
+
+/**
+ * The native statements declare the tables they touch, so that Hibernate only invalidates the
+ * second-level cache regions backed by those tables instead of all of them, and flushes the pending
+ * changes to those tables first.
+ */
 @Repository
 public interface SessionRepository  extends JpaRepository<Session, Long> {
+    /**
+     * Read-only projection on the SessionDto columns: no managed entity is created. The
+     * participants are left null and read separately from PARTICIPATE.
+     */
+    String SESSION_DTO = "select new com.openclassrooms.starterjwt.dto.SessionDto("
+            + "s.id, s.name, s.date, s.teacher.id, s.description, s.capacity, s.waitlistEnabled, s.createdAt, s.updatedAt) from Session s";
+
+    /**
+     * Single session with its participants, fetched in the same query.
+     */
+    @Override
+    @EntityGraph(attributePaths = "users")
+    Optional<Session> findById(Long id);
+
+    @Query(SESSION_DTO + " where s.id = :id")
+    Optional<SessionDto> findDtoById(@Param("id") Long id);
+
+    @Query(SESSION_DTO)
+    Slice<SessionDto> findDtoPage(Pageable pageable);
+
+    /**
+     * Keyset page: the sessions strictly after ({@code date}, {@code id}) in (date, id) order.
+     */
+    @Query(SESSION_DTO + " where s.date > :date or (s.date = :date and s.id > :id) order by s.date asc, s.id asc")
+    Slice<SessionDto> findDtosAfter(@Param("date") Date date, @Param("id") Long id, Pageable pageable);
+
+    @Query(value = "select session_id as sessionId, user_id as userId from PARTICIPATE where session_id in (:sessionIds)", nativeQuery = true)
+    List<SessionParticipant> findParticipants(@Param("sessionIds") Collection<Long> sessionIds);
+
+    @Query(value = "select count(*) from PARTICIPATE where session_id = :sessionId and user_id = :userId", nativeQuery = true)
+    long countParticipant(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    /**
+     * Inserts a single PARTICIPATE row. Fails with a constraint violation if the user already
+     * participates or if the session or the user does not exist.
+     */
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = NATIVE_SPACES, value = "PARTICIPATE"))
+    @Query(value = "insert into PARTICIPATE (session_id, user_id) values (:sessionId, :userId)", nativeQuery = true)
+    int addParticipant(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = NATIVE_SPACES, value = "PARTICIPATE"))
+    @Query(value = "delete from PARTICIPATE where session_id = :sessionId and user_id = :userId", nativeQuery = true)
+    int removeParticipant(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    /**
+     * Takes one seat if the session has room left. The row lock of the update serializes
+     * concurrent reservations of the same session until the transaction ends.
+     *
+     * @return 1 if a seat was taken, 0 if the session is full or does not exist
+     */
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = NATIVE_SPACES, value = "SESSIONS"))
+    @Query(value = "update SESSIONS set seats_taken = seats_taken + 1 where id = :id and (capacity is null or seats_taken < capacity)", nativeQuery = true)
+    int reserveSeat(@Param("id") Long id);
+
+    /**
+     * Locks the row of the session until the transaction ends, with a locking read.
+     *
+     * @return the id of the session, empty if it does not exist
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s.id from Session s where s.id = :id")
+    Optional<Long> lockSession(@Param("id") Long id);
+
+    /**
+     * Locks the row of a session that has its waitlist enabled until the transaction ends, with a
+     * locking read, so that its seats and waitlist cannot change meanwhile.
+     *
+     * @return the id of the session, empty if it has no waitlist or does not exist
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s.id from Session s where s.id = :id and s.waitlistEnabled = true")
+    Optional<Long> lockWaitlist(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = NATIVE_SPACES, value = "SESSIONS"))
+    @Query(value = "update SESSIONS set seats_taken = seats_taken - 1 where id = :id and seats_taken > 0", nativeQuery = true)
+    int releaseSeat(@Param("id") Long id);
+
+    /**
+     * Gives a seat back unless the session has a waitlist, whose head should get it instead.
+     *
+     * @return 1 if the seat was released, 0 if the session has its waitlist enabled
+     */
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = NATIVE_SPACES, value = "SESSIONS"))
+    @Query(value = "update SESSIONS set seats_taken = seats_taken - 1 where id = :id and seats_taken > 0 and waitlist_enabled = false", nativeQuery = true)
+    int releaseSeatWithoutWaitlist(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @QueryHints({@QueryHint(name = NATIVE_SPACES, value = "SESSIONS"), @QueryHint(name = NATIVE_SPACES, value = "PARTICIPATE")})
+    @Query(value = "update SESSIONS set seats_taken = (select count(*) from PARTICIPATE where session_id = :id) where id = :id", nativeQuery = true)
+    int recountSeats(@Param("id") Long id);
 }
@@ -2,8 +2,21 @@ package com.openclassrooms.starterjwt.repository;
 
 import com.openclassrooms.starterjwt.models.Teacher;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.List;
+
+import static org.hibernate.annotations.QueryHints.CACHEABLE;
+
 @Repository
 public interface TeacherRepository  extends JpaRepository<Teacher, Long> {
+    /**
+     * Every teacher, from the query cache. The cached result is discarded by Hibernate as soon as
+     * TEACHERS is written to.
+     */
+    @Override
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
+    List<Teacher> findAll();
 }
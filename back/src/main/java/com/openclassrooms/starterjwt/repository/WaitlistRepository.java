@@ -0,0 +1,45 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.LockModeType;
+import java.util.Optional;
+
+@Repository
+public interface WaitlistRepository extends JpaRepository<WaitlistEntry, Long> {
+    /**
+     * Head of the queue of a session, read from the (session_id, id) index with a locking read, so
+     * that an entry promoted by a transaction that committed since the current one started is not
+     * returned.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<WaitlistEntry> findFirstBySessionIdOrderByIdAsc(Long sessionId);
+
+    boolean existsBySessionIdAndUserId(Long sessionId, Long userId);
+
+    long countBySessionId(Long sessionId);
+
+    /**
+     * 1-based position of the user in the queue of the session, or 0 if the user is not waiting.
+     */
+    @Query("select count(w) from WaitlistEntry w, WaitlistEntry e"
+            + " where e.sessionId = :sessionId and e.userId = :userId and w.sessionId = e.sessionId and w.id <= e.id")
+    long findPosition(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from WaitlistEntry w where w.sessionId = :sessionId and w.userId = :userId")
+    int removeEntry(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from WaitlistEntry w where w.sessionId = :sessionId")
+    int removeAllEntries(@Param("sessionId") Long sessionId);
+}
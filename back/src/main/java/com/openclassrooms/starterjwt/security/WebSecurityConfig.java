@@ -1,6 +1,11 @@
 package com.openclassrooms.starterjwt.security;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -11,13 +16,17 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import com.openclassrooms.starterjwt.security.crypto.IsolatedPasswordEncoder;
 import com.openclassrooms.starterjwt.security.jwt.AuthEntryPointJwt;
 import com.openclassrooms.starterjwt.security.jwt.AuthTokenFilter;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 @EnableWebSecurity
 @EnableGlobalMethodSecurity(
@@ -31,6 +40,21 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
   @Autowired
   private AuthEntryPointJwt unauthorizedHandler;
 
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Value("${oc.app.bcrypt.strength:10}")
+  private int bcryptStrength;
+
+  @Value("${oc.app.passwordHashing.threads:0}")
+  private int passwordHashingThreads;
+
+  @Value("${oc.app.passwordHashing.queueCapacity:64}")
+  private int passwordHashingQueueCapacity;
+
+  @Value("${oc.app.passwordHashing.timeoutMs:2000}")
+  private long passwordHashingTimeoutMs;
+
   @Bean
   public AuthTokenFilter authenticationJwtTokenFilter() {
     return new AuthTokenFilter();
@@ -49,7 +73,24 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
 
   @Bean
   public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+    return new IsolatedPasswordEncoder(delegatingPasswordEncoder(bcryptStrength), passwordHashingThreads,
+        passwordHashingQueueCapacity, passwordHashingTimeoutMs, meterRegistry);
+  }
+
+  /**
+   * New hashes are written as {@code {bcrypt}} with a cost of {@code oc.app.bcrypt.strength}.
+   * Hashes without a prefix, as stored before, are read as BCrypt. Those and hashes of a lower
+   * cost are re-encoded on the next successful login and saved through
+   * {@link UserDetailsServiceImpl#updatePassword}.
+   */
+  static PasswordEncoder delegatingPasswordEncoder(int bcryptStrength) {
+    BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+    Map<String, PasswordEncoder> encoders = new HashMap<>();
+    encoders.put("bcrypt", bcrypt);
+
+    DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", encoders);
+    encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+    return encoder;
   }
 
   @Override
@@ -58,6 +99,7 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
       .exceptionHandling().authenticationEntryPoint(unauthorizedHandler).and()
       .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS).and()
       .authorizeRequests().antMatchers("/api/auth/**").permitAll()
+      .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
       .antMatchers("/api/**").authenticated()
       .anyRequest().authenticated();
 
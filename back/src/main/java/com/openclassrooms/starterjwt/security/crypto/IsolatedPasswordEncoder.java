@@ -0,0 +1,128 @@
+package com.openclassrooms.starterjwt.security.crypto;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.openclassrooms.starterjwt.exception.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+/**
+ * Runs the hashing and verification of a delegate encoder on a small dedicated pool, so that
+ * login and registration bursts occupy at most {@code threads} cores and leave the request
+ * threads to the rest of the API. When the queue is full, or a task has waited longer than
+ * {@code timeoutMs}, the call fails fast with {@link ServiceUnavailableException} (503).
+ *
+ * <p>The pool is exposed as the {@code executor.*} meters with {@code name=password.hashing}
+ * (queued tasks, active threads, wait and execution time); rejections are counted in
+ * {@code password.hashing.rejected} by reason.
+ */
+public class IsolatedPasswordEncoder implements PasswordEncoder {
+  static final String EXECUTOR_NAME = "password.hashing";
+
+  static final String REJECTED_METRIC = "password.hashing.rejected";
+
+  private final PasswordEncoder delegate;
+
+  private final ThreadPoolExecutor pool;
+
+  private final ExecutorService executor;
+
+  private final long timeoutMs;
+
+  private final Counter queueFullCounter;
+
+  private final Counter timeoutCounter;
+
+  public IsolatedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, long timeoutMs,
+      MeterRegistry meterRegistry) {
+    int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    BlockingQueue<Runnable> queue = queueCapacity > 0
+        ? new ArrayBlockingQueue<>(queueCapacity)
+        : new SynchronousQueue<>();
+    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("password-hashing-");
+    threadFactory.setDaemon(true);
+
+    this.delegate = delegate;
+    this.pool = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS, queue, threadFactory,
+        new ThreadPoolExecutor.AbortPolicy());
+    this.executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, EXECUTOR_NAME);
+    this.timeoutMs = timeoutMs;
+    this.queueFullCounter = rejectedCounter(meterRegistry, "queue_full");
+    this.timeoutCounter = rejectedCounter(meterRegistry, "timeout");
+  }
+
+  private static Counter rejectedCounter(MeterRegistry registry, String reason) {
+    return Counter.builder(REJECTED_METRIC)
+        .description("Password hashing calls rejected because the pool was saturated")
+        .tag("reason", reason)
+        .register(registry);
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return run(() -> delegate.encode(rawPassword));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return run(() -> delegate.matches(rawPassword, encodedPassword));
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+
+  /**
+   * Stops the pool; invoked by Spring as the inferred destroy method of the bean.
+   */
+  public void shutdown() {
+    pool.shutdownNow();
+  }
+
+  private <T> T run(Callable<T> task) {
+    Future<T> future;
+    try {
+      future = executor.submit(task);
+    } catch (RejectedExecutionException e) {
+      queueFullCounter.increment();
+      throw new ServiceUnavailableException();
+    }
+
+    try {
+      return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      future.cancel(true);
+      timeoutCounter.increment();
+      throw new ServiceUnavailableException();
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new ServiceUnavailableException();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+}
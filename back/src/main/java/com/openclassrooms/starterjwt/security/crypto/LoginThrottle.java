@@ -0,0 +1,162 @@
+package com.openclassrooms.starterjwt.security.crypto;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openclassrooms.starterjwt.exception.TooManyRequestsException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * In-memory token buckets limiting password checks per email and per client address. Only failed
+ * logins count against an email: the attempt of a successful one is given back. A bucket
+ * holds up to {@code capacity} attempts and regains {@code perMinute} of them every minute; an
+ * idle bucket is dropped once it would have refilled, which is the same as keeping it full.
+ * The buckets are local to the instance.
+ */
+@Component
+public class LoginThrottle {
+  static final String THROTTLED_METRIC = "login.throttled";
+
+  private final Limit emailLimit;
+
+  private final Limit addressLimit;
+
+  private final LongSupplier clock;
+
+  private final Counter emailThrottled;
+
+  private final Counter addressThrottled;
+
+  @Autowired
+  public LoginThrottle(@Value("${oc.app.loginThrottle.email.capacity:5}") int emailCapacity,
+      @Value("${oc.app.loginThrottle.email.perMinute:5}") int emailPerMinute,
+      @Value("${oc.app.loginThrottle.address.capacity:20}") int addressCapacity,
+      @Value("${oc.app.loginThrottle.address.perMinute:60}") int addressPerMinute,
+      @Value("${oc.app.loginThrottle.maxKeys:100000}") long maxKeys,
+      MeterRegistry meterRegistry) {
+    this(emailCapacity, emailPerMinute, addressCapacity, addressPerMinute, maxKeys, meterRegistry, System::nanoTime);
+  }
+
+  LoginThrottle(int emailCapacity, int emailPerMinute, int addressCapacity, int addressPerMinute, long maxKeys,
+      MeterRegistry meterRegistry, LongSupplier clock) {
+    this.emailLimit = new Limit(emailCapacity, emailPerMinute, maxKeys);
+    this.addressLimit = new Limit(addressCapacity, addressPerMinute, maxKeys);
+    this.clock = clock;
+    this.emailThrottled = throttledCounter(meterRegistry, "email");
+    this.addressThrottled = throttledCounter(meterRegistry, "address");
+  }
+
+  private static Counter throttledCounter(MeterRegistry registry, String key) {
+    return Counter.builder(THROTTLED_METRIC)
+        .description("Login and registration attempts rejected by the throttle")
+        .tag("key", key)
+        .register(registry);
+  }
+
+  /**
+   * Takes one attempt from the bucket of the address, then from the bucket of the email, so
+   * that a throttled address does not drain the attempts left to the account.
+   *
+   * @throws TooManyRequestsException if either bucket is empty
+   */
+  public void checkLogin(String email, String address) {
+    checkAddress(address);
+    if (!emailLimit.tryConsume(normalize(email), clock.getAsLong())) {
+      emailThrottled.increment();
+      throw new TooManyRequestsException();
+    }
+  }
+
+  /**
+   * Gives back the attempt taken by {@link #checkLogin} from the bucket of the email, once its
+   * password has been accepted. The attempt is taken before the check, so that concurrent
+   * guesses cannot all pass while the bucket still looks full.
+   */
+  public void loginSucceeded(String email) {
+    emailLimit.refund(normalize(email), clock.getAsLong());
+  }
+
+  /**
+   * @throws TooManyRequestsException if the bucket of the address is empty
+   */
+  public void checkAddress(String address) {
+    if (!addressLimit.tryConsume(address, clock.getAsLong())) {
+      addressThrottled.increment();
+      throw new TooManyRequestsException();
+    }
+  }
+
+  private static String normalize(String email) {
+    return email.trim().toLowerCase(Locale.ROOT);
+  }
+
+  private static final class Limit {
+    private final int capacity;
+
+    private final double tokensPerNano;
+
+    private final Cache<String, Bucket> buckets;
+
+    Limit(int capacity, int perMinute, long maxKeys) {
+      this.capacity = capacity;
+      this.tokensPerNano = perMinute / (double) TimeUnit.MINUTES.toNanos(1);
+      long refillNanos = perMinute > 0
+          ? (long) Math.ceil(capacity / tokensPerNano)
+          : TimeUnit.DAYS.toNanos(1);
+      this.buckets = Caffeine.newBuilder()
+          .maximumSize(maxKeys)
+          .expireAfterAccess(refillNanos, TimeUnit.NANOSECONDS)
+          .build();
+    }
+
+    boolean tryConsume(String key, long now) {
+      return buckets.get(key, k -> new Bucket(capacity, now)).tryConsume(now, capacity, tokensPerNano);
+    }
+
+    void refund(String key, long now) {
+      Bucket bucket = buckets.getIfPresent(key);
+      if (bucket != null) {
+        bucket.refund(now, capacity, tokensPerNano);
+      }
+    }
+  }
+
+  private static final class Bucket {
+    private double tokens;
+
+    private long updatedAt;
+
+    Bucket(int capacity, long now) {
+      this.tokens = capacity;
+      this.updatedAt = now;
+    }
+
+    synchronized boolean tryConsume(long now, int capacity, double tokensPerNano) {
+      refill(now, capacity, tokensPerNano);
+      if (tokens < 1) {
+        return false;
+      }
+      tokens -= 1;
+      return true;
+    }
+
+    synchronized void refund(long now, int capacity, double tokensPerNano) {
+      refill(now, capacity, tokensPerNano);
+      tokens = Math.min(capacity, tokens + 1);
+    }
+
+    private void refill(long now, int capacity, double tokensPerNano) {
+      tokens = Math.min(capacity, tokens + (now - updatedAt) * tokensPerNano);
+      updatedAt = now;
+    }
+  }
+}
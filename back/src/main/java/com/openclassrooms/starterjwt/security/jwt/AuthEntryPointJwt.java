@@ -1,43 +1,117 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+import javax.annotation.PostConstruct;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.stereotype.Component;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+
 @Component
 public class AuthEntryPointJwt implements AuthenticationEntryPoint {
 
   private static final Logger logger = LoggerFactory.getLogger(AuthEntryPointJwt.class);
 
+  static final String UNAUTHORIZED_METRIC = "http.unauthorized";
+
+  private static final SerializedString STATUS = new SerializedString("status");
+
+  private static final SerializedString ERROR = new SerializedString("error");
+
+  private static final SerializedString UNAUTHORIZED = new SerializedString("Unauthorized");
+
+  private static final SerializedString MESSAGE = new SerializedString("message");
+
+  private static final SerializedString PATH = new SerializedString("path");
+
+  @Autowired(required = false)
+  private ObjectMapper objectMapper;
+
+  @Autowired(required = false)
+  private MeterRegistry meterRegistry;
+
+  @Value("${oc.app.unauthorizedLogIntervalMs:10000}")
+  private long logIntervalMs = 10000;
+
+  private final Map<Class<?>, Counter> counters = new ConcurrentHashMap<>();
+
+  private final AtomicLong unlogged = new AtomicLong();
+
+  private final AtomicLong nextLogMillis = new AtomicLong();
+
+  @PostConstruct
+  public void init() {
+    if (objectMapper == null) {
+      objectMapper = new ObjectMapper();
+    }
+    if (meterRegistry == null) {
+      meterRegistry = Metrics.globalRegistry;
+    }
+  }
+
+  /**
+   * Writes the error body with a generator on the shared mapper; only the message and the path
+   * are encoded per request. Rejections are counted by exception type and logged as one summary
+   * line per {@code oc.app.unauthorizedLogIntervalMs}.
+   */
   @Override
   public void commence(HttpServletRequest request, HttpServletResponse response, AuthenticationException authException)
       throws IOException, ServletException {
-    logger.error("Unauthorized error: {}", authException.getMessage());
+    String path = request.getServletPath();
+    record(path, authException);
 
     response.setContentType(MediaType.APPLICATION_JSON_VALUE);
     response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
 
-    final Map<String, Object> body = new HashMap<>();
-    body.put("status", HttpServletResponse.SC_UNAUTHORIZED);
-    body.put("error", "Unauthorized");
-    body.put("message", authException.getMessage());
-    body.put("path", request.getServletPath());
+    try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+      generator.writeStartObject();
+      generator.writeFieldName(STATUS);
+      generator.writeNumber(HttpServletResponse.SC_UNAUTHORIZED);
+      generator.writeFieldName(ERROR);
+      generator.writeString(UNAUTHORIZED);
+      generator.writeFieldName(MESSAGE);
+      generator.writeString(authException.getMessage());
+      generator.writeFieldName(PATH);
+      generator.writeString(path);
+      generator.writeEndObject();
+    }
+  }
+
+  private void record(String path, AuthenticationException authException) {
+    counters.computeIfAbsent(authException.getClass(), type -> Counter.builder(UNAUTHORIZED_METRIC)
+        .description("Requests rejected by the authentication entry point")
+        .tag("reason", type.getSimpleName())
+        .register(meterRegistry))
+        .increment();
+    logger.debug("Unauthorized error: path={} message={}", path, authException.getMessage());
 
-    final ObjectMapper mapper = new ObjectMapper();
-    mapper.writeValue(response.getOutputStream(), body);
+    unlogged.incrementAndGet();
+    long now = System.currentTimeMillis();
+    long next = nextLogMillis.get();
+    if (now >= next && nextLogMillis.compareAndSet(next, now + logIntervalMs)) {
+      logger.warn("Unauthorized requests: count={} last_path={} last_reason={} last_message={}",
+          unlogged.getAndSet(0), path, authException.getClass().getSimpleName(), authException.getMessage());
+    }
   }
 
 }
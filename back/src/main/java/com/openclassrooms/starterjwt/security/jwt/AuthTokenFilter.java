@@ -10,6 +10,7 @@ import javax.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -17,14 +18,22 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+import com.openclassrooms.starterjwt.monitoring.RequestTimings;
+import com.openclassrooms.starterjwt.security.services.CachingUserDetailsService;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 
 public class AuthTokenFilter extends OncePerRequestFilter {
   @Autowired
   private JwtUtils jwtUtils;
 
   @Autowired
-  private UserDetailsServiceImpl userDetailsService;
+  private CachingUserDetailsService userDetailsService;
+
+  @Autowired
+  private JwtTokenCache tokenCache;
+
+  @Value("${oc.app.jwtStatelessPrincipal:false}")
+  private boolean statelessPrincipal;
 
   private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
@@ -33,10 +42,21 @@ public class AuthTokenFilter extends OncePerRequestFilter {
       throws ServletException, IOException {
     try {
       String jwt = parseJwt(request);
-      if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-        String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+      VerifiedToken token;
+      RequestTimings.begin(RequestTimings.Phase.TOKEN);
+      try {
+        token = jwt != null ? tokenCache.verify(jwt, jwtUtils::verifyJwtToken) : null;
+      } finally {
+        RequestTimings.end(RequestTimings.Phase.TOKEN);
+      }
+      if (token != null) {
+        UserDetails userDetails;
+        RequestTimings.begin(RequestTimings.Phase.PRINCIPAL);
+        try {
+          userDetails = loadPrincipal(token);
+        } finally {
+          RequestTimings.end(RequestTimings.Phase.PRINCIPAL);
+        }
         UsernamePasswordAuthenticationToken authentication =
             new UsernamePasswordAuthenticationToken(
                 userDetails,
@@ -53,6 +73,25 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     filterChain.doFilter(request, response);
   }
 
+  /**
+   * In stateless mode the principal is rebuilt from the verified claims without touching the
+   * database. Tokens issued without the user id claim still go through the user details service.
+   */
+  private UserDetails loadPrincipal(VerifiedToken token) {
+    if (statelessPrincipal && token.getId() != null) {
+      return UserDetailsImpl
+          .builder()
+          .id(token.getId())
+          .username(token.getSubject())
+          .firstName(token.getFirstName())
+          .lastName(token.getLastName())
+          .admin(token.isAdmin())
+          .build();
+    }
+
+    return userDetailsService.loadUserByUsername(token.getSubject());
+  }
+
   private String parseJwt(HttpServletRequest request) {
     String headerAuth = request.getHeader("Authorization");
 
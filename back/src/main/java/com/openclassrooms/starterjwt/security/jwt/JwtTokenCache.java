@@ -0,0 +1,140 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded cache of already verified tokens, keyed by the SHA-256 digest of the raw token so
+ * that bearer tokens are never kept in memory. An entry lives at most {@code ttlMs} and never
+ * past the expiry of the token itself.
+ *
+ * <p>Invalidated subjects are kept in memory for the lifetime of a token, up to
+ * {@link #MAX_REVOKED_SUBJECTS}: a token issued to a subject in a second before that subject was
+ * invalidated is rejected even after it has been evicted and verified again. Past that bound, the
+ * tokens of a deleted user are still refused by the lookup of its details, unless
+ * {@code oc.app.jwtStatelessPrincipal} skips it.
+ *
+ * <p>Hits, misses, evictions and size of the token cache are exposed as the {@code cache.*}
+ * meters with {@code cache=jwt.tokens}.
+ */
+@Component
+public class JwtTokenCache {
+  static final String CACHE_NAME = "jwt.tokens";
+
+  static final long MAX_REVOKED_SUBJECTS = 100_000;
+
+  private final Cache<String, VerifiedToken> tokens;
+
+  private final Cache<String, Long> revokedSubjects;
+
+  public JwtTokenCache(@Value("${oc.app.jwtCache.maxSize:10000}") long maxSize,
+      @Value("${oc.app.jwtCache.ttlMs:600000}") long ttlMs,
+      @Value("${oc.app.jwtExpirationMs}") long jwtExpirationMs,
+      MeterRegistry meterRegistry) {
+    this.tokens = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfter(new TokenExpiry(TimeUnit.MILLISECONDS.toNanos(ttlMs)))
+        .recordStats()
+        .<String, VerifiedToken>build(), CACHE_NAME);
+    this.revokedSubjects = Caffeine.newBuilder()
+        .maximumSize(MAX_REVOKED_SUBJECTS)
+        .expireAfterWrite(jwtExpirationMs, TimeUnit.MILLISECONDS)
+        .build();
+  }
+
+  /**
+   * Returns the cached claims of the token, or runs the verifier and caches its result.
+   *
+   * @return the verified claims, or {@code null} if the token is invalid or its subject was invalidated
+   */
+  public VerifiedToken verify(String jwt, Function<String, VerifiedToken> verifier) {
+    String key = digest(jwt);
+    VerifiedToken token = tokens.get(key, k -> verifier.apply(jwt));
+    if (token == null || isRevoked(token)) {
+      return null;
+    }
+
+    return token;
+  }
+
+  /**
+   * Drops every cached token of the subject and rejects all tokens issued to it before the
+   * current second. As {@code iat} is in whole seconds, a token issued in the same second is
+   * accepted.
+   */
+  public void invalidateUser(String subject) {
+    revokedSubjects.put(subject, TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
+    tokens.asMap().values().removeIf(token -> subject.equals(token.getSubject()));
+  }
+
+  public long size() {
+    return tokens.estimatedSize();
+  }
+
+  void cleanUp() {
+    tokens.cleanUp();
+  }
+
+  private boolean isRevoked(VerifiedToken token) {
+    Long revokedAtSeconds = revokedSubjects.getIfPresent(token.getSubject());
+    if (revokedAtSeconds == null) {
+      return false;
+    }
+
+    Date issuedAt = token.getIssuedAt();
+    return issuedAt == null || TimeUnit.MILLISECONDS.toSeconds(issuedAt.getTime()) < revokedAtSeconds;
+  }
+
+  private static String digest(String jwt) {
+    try {
+      MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+      return Base64.getEncoder().encodeToString(sha256.digest(jwt.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  private static class TokenExpiry implements Expiry<String, VerifiedToken> {
+    private final long ttlNanos;
+
+    TokenExpiry(long ttlNanos) {
+      this.ttlNanos = ttlNanos;
+    }
+
+    @Override
+    public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+      Date expiration = token.getExpiration();
+      if (expiration == null) {
+        return ttlNanos;
+      }
+
+      long untilExpiry = TimeUnit.MILLISECONDS.toNanos(expiration.getTime() - System.currentTimeMillis());
+      return Math.max(0, Math.min(ttlNanos, untilExpiry));
+    }
+
+    @Override
+    public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+
+    @Override
+    public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
@@ -1,59 +1,167 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.Date;
 
+import javax.annotation.PostConstruct;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.impl.TextCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 
 @Component
 public class JwtUtils {
   private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
-  @Value("${oc.app.jwtSecret}")
+  static final String ID_CLAIM = "id";
+
+  static final String ADMIN_CLAIM = "admin";
+
+  static final String FIRST_NAME_CLAIM = "firstName";
+
+  static final String LAST_NAME_CLAIM = "lastName";
+
+  static final String VERIFICATIONS_METRIC = "jwt.verifications";
+
+  @Value("${oc.app.jwtSecret:}")
   private String jwtSecret;
 
+  @Value("${oc.app.jwtSecretFile:}")
+  private String jwtSecretFile;
+
   @Value("${oc.app.jwtExpirationMs}")
   private int jwtExpirationMs;
 
+  private SecretKey signingKey;
+
+  private JwtParser jwtParser;
+
+  @Autowired(required = false)
+  private MeterRegistry meterRegistry;
+
+  private Counter validCounter;
+
+  private Counter invalidSignatureCounter;
+
+  private Counter malformedCounter;
+
+  private Counter expiredCounter;
+
+  private Counter unsupportedCounter;
+
+  private Counter emptyCounter;
+
+  /**
+   * Derives the HS512 key once. The secret is base64 encoded, either inline in
+   * {@code oc.app.jwtSecret} or as the content of {@code oc.app.jwtSecretFile}, which wins when set.
+   * The parser holds no per-parse state, so a single instance is shared by all requests.
+   */
+  @PostConstruct
+  public void init() throws IOException {
+    String secret = jwtSecret;
+    if (StringUtils.hasText(jwtSecretFile)) {
+      secret = new String(Files.readAllBytes(Paths.get(jwtSecretFile)), StandardCharsets.US_ASCII).trim();
+    }
+    if (!StringUtils.hasText(secret)) {
+      throw new IllegalStateException("oc.app.jwtSecret or oc.app.jwtSecretFile must be set");
+    }
+
+    signingKey = new SecretKeySpec(TextCodec.BASE64.decode(secret), SignatureAlgorithm.HS512.getJcaName());
+    jwtParser = Jwts.parser().setSigningKey(signingKey);
+
+    MeterRegistry registry = meterRegistry != null ? meterRegistry : Metrics.globalRegistry;
+    validCounter = verificationCounter(registry, "valid");
+    invalidSignatureCounter = verificationCounter(registry, "invalid_signature");
+    malformedCounter = verificationCounter(registry, "malformed");
+    expiredCounter = verificationCounter(registry, "expired");
+    unsupportedCounter = verificationCounter(registry, "unsupported");
+    emptyCounter = verificationCounter(registry, "empty");
+  }
+
+  private static Counter verificationCounter(MeterRegistry registry, String outcome) {
+    return Counter.builder(VERIFICATIONS_METRIC)
+        .description("JWT verifications by outcome")
+        .tag("outcome", outcome)
+        .register(registry);
+  }
+
   public String generateJwtToken(Authentication authentication) {
 
     UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
 
     return Jwts.builder()
         .setSubject((userPrincipal.getUsername()))
+        .claim(ID_CLAIM, userPrincipal.getId())
+        .claim(FIRST_NAME_CLAIM, userPrincipal.getFirstName())
+        .claim(LAST_NAME_CLAIM, userPrincipal.getLastName())
+        .claim(ADMIN_CLAIM, Boolean.TRUE.equals(userPrincipal.getAdmin()))
         .setIssuedAt(new Date())
         .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-        .signWith(SignatureAlgorithm.HS512, jwtSecret)
+        .signWith(SignatureAlgorithm.HS512, signingKey)
         .compact();
   }
 
   public String getUserNameFromJwtToken(String token) {
-    return Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody().getSubject();
+    return jwtParser.parseClaimsJws(token).getBody().getSubject();
   }
 
   public boolean validateJwtToken(String authToken) {
+    return verifyJwtToken(authToken) != null;
+  }
+
+  /**
+   * Checks the signature and expiry of the token and extracts its claims in a single parse.
+   * Each call counts once in {@code jwt.verifications}, tagged with its outcome.
+   *
+   * @return the verified claims, or {@code null} if the token is not valid
+   */
+  public VerifiedToken verifyJwtToken(String authToken) {
     try {
-      Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
-      return true;
+      Claims claims = jwtParser.parseClaimsJws(authToken).getBody();
+
+      validCounter.increment();
+      return new VerifiedToken(
+          claims.getSubject(),
+          claims.get(ID_CLAIM, Long.class),
+          claims.get(FIRST_NAME_CLAIM, String.class),
+          claims.get(LAST_NAME_CLAIM, String.class),
+          claims.getIssuedAt(),
+          claims.getExpiration(),
+          Boolean.TRUE.equals(claims.get(ADMIN_CLAIM, Boolean.class)));
     } catch (SignatureException e) {
+      invalidSignatureCounter.increment();
       logger.error("Invalid JWT signature: {}", e.getMessage());
     } catch (MalformedJwtException e) {
+      malformedCounter.increment();
       logger.error("Invalid JWT token: {}", e.getMessage());
     } catch (ExpiredJwtException e) {
+      expiredCounter.increment();
       logger.error("JWT token is expired: {}", e.getMessage());
     } catch (UnsupportedJwtException e) {
+      unsupportedCounter.increment();
       logger.error("JWT token is unsupported: {}", e.getMessage());
     } catch (IllegalArgumentException e) {
+      emptyCounter.increment();
       logger.error("JWT claims string is empty: {}", e.getMessage());
     }
 
-    return false;
+    return null;
   }
 }
@@ -0,0 +1,48 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.util.Date;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Claims of a JWT whose signature and expiry have already been checked by
+ * {@link JwtUtils#verifyJwtToken(String)}. Instances are immutable so they can be
+ * handed around the request without re-parsing the token.
+ */
+@Getter
+@ToString
+public class VerifiedToken {
+  private final String subject;
+
+  private final Long id;
+
+  private final String firstName;
+
+  private final String lastName;
+
+  private final Date issuedAt;
+
+  private final Date expiration;
+
+  private final boolean admin;
+
+  public VerifiedToken(String subject, Long id, String firstName, String lastName,
+      Date issuedAt, Date expiration, boolean admin) {
+    this.subject = subject;
+    this.id = id;
+    this.firstName = firstName;
+    this.lastName = lastName;
+    this.issuedAt = issuedAt == null ? null : new Date(issuedAt.getTime());
+    this.expiration = expiration == null ? null : new Date(expiration.getTime());
+    this.admin = admin;
+  }
+
+  public Date getIssuedAt() {
+    return issuedAt == null ? null : new Date(issuedAt.getTime());
+  }
+
+  public Date getExpiration() {
+    return expiration == null ? null : new Date(expiration.getTime());
+  }
+}
@@ -0,0 +1,54 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Per-email cache in front of {@link UserDetailsServiceImpl}, used on the request path so that
+ * repeat callers do not hit the USERS table on every request. Unknown emails are never cached.
+ * Entries must be evicted whenever the underlying user is created or deleted.
+ *
+ * <p>Hit ratio and load latency of the cache are exposed as the {@code cache.*} meters with
+ * {@code cache=user.details}.
+ */
+@Service
+public class CachingUserDetailsService implements UserDetailsService {
+  static final String CACHE_NAME = "user.details";
+
+  private final LoadingCache<String, UserDetails> users;
+
+  public CachingUserDetailsService(UserDetailsServiceImpl userDetailsService,
+      @Value("${oc.app.userDetailsCache.maxSize:10000}") long maxSize,
+      @Value("${oc.app.userDetailsCache.ttlMs:300000}") long ttlMs,
+      MeterRegistry meterRegistry) {
+    this.users = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(ttlMs, TimeUnit.MILLISECONDS)
+        .recordStats()
+        .build(userDetailsService::loadUserByUsername), CACHE_NAME);
+  }
+
+  @Override
+  public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+    return users.get(username);
+  }
+
+  public void evict(String email) {
+    users.invalidate(email);
+  }
+
+  public void evictUser(Long id) {
+    users.asMap().values().removeIf(user -> user instanceof UserDetailsImpl && id.equals(((UserDetailsImpl) user).getId()));
+  }
+}
@@ -13,7 +13,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 @Getter
 public class UserDetailsImpl implements UserDetails {
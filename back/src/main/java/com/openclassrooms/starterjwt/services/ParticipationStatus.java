@@ -0,0 +1,16 @@
+package com.openclassrooms.starterjwt.services;
+
+/**
+ * Outcome of a participation request.
+ */
+public enum ParticipationStatus {
+    /**
+     * The user took a seat.
+     */
+    CONFIRMED,
+
+    /**
+     * The session is full and the user was queued on its waitlist.
+     */
+    WAITLISTED
+}
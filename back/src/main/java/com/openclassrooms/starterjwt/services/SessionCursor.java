@@ -0,0 +1,51 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Position of a session in the (date, id) listing order, exchanged with clients as an opaque
+ * URL-safe token.
+ */
+@Getter
+@EqualsAndHashCode
+public final class SessionCursor {
+    private final long date;
+    private final Long id;
+
+    public SessionCursor(long date, Long id) {
+        this.date = date;
+        this.id = id;
+    }
+
+    public static SessionCursor of(SessionDto session) {
+        return new SessionCursor(session.getDate().getTime(), session.getId());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static SessionCursor decode(String token) {
+        String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        int separator = value.indexOf(':');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid session cursor: " + token);
+        }
+
+        return new SessionCursor(Long.parseLong(value.substring(0, separator)), Long.valueOf(value.substring(separator + 1)));
+    }
+
+    public String encode() {
+        String value = date + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Date toDate() {
+        return new Date(date);
+    }
+}
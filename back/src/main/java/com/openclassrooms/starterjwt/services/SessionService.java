@@ -1,78 +1,281 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.dto.SessionDto;
 import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.exception.SessionFullException;
 import com.openclassrooms.starterjwt.models.Session;
-import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import com.openclassrooms.starterjwt.monitoring.QueryBudget;
+import com.openclassrooms.starterjwt.repository.SessionParticipant;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 public class SessionService {
+    private static final Sort LISTING_ORDER = Sort.by("date", "id");
+
     private final SessionRepository sessionRepository;
 
     private final UserRepository userRepository;
 
-    public SessionService(SessionRepository sessionRepository, UserRepository userRepository) {
+    private final WaitlistRepository waitlistRepository;
+
+    public SessionService(SessionRepository sessionRepository, UserRepository userRepository,
+                          WaitlistRepository waitlistRepository) {
         this.sessionRepository = sessionRepository;
         this.userRepository = userRepository;
+        this.waitlistRepository = waitlistRepository;
     }
 
+    @Transactional
     public Session create(Session session) {
-        return this.sessionRepository.save(session);
+        Session created = this.sessionRepository.save(session);
+        this.sessionRepository.recountSeats(created.getId());
+
+        return created;
     }
 
+    @Transactional
+    @QueryBudget(4)
     public void delete(Long id) {
+        this.waitlistRepository.removeAllEntries(id);
         this.sessionRepository.deleteById(id);
     }
 
-    public List<Session> findAll() {
-        return this.sessionRepository.findAll();
+    /**
+     * Offset page of sessions in (date, id) order. No count query is issued.
+     */
+    @QueryBudget(2)
+    public Slice<SessionDto> findPage(int page, int size) {
+        return withParticipants(this.sessionRepository.findDtoPage(PageRequest.of(page, size, LISTING_ORDER)));
+    }
+
+    /**
+     * Keyset page of the sessions following {@code cursor} in (date, id) order, or the first page
+     * if {@code cursor} is null. Its cost does not depend on how deep the client has scrolled.
+     */
+    @QueryBudget(2)
+    public Slice<SessionDto> findAfter(SessionCursor cursor, int size) {
+        if (cursor == null) {
+            return findPage(0, size);
+        }
+
+        return withParticipants(this.sessionRepository.findDtosAfter(cursor.toDate(), cursor.getId(), PageRequest.of(0, size)));
     }
 
+    @QueryBudget(2)
+    public SessionDto getDtoById(Long id) {
+        SessionDto session = this.sessionRepository.findDtoById(id).orElse(null);
+        if (session != null) {
+            withParticipants(Collections.singletonList(session));
+        }
+
+        return session;
+    }
+
+    @QueryBudget(1)
     public Session getById(Long id) {
         return this.sessionRepository.findById(id).orElse(null);
     }
 
+    /**
+     * Saves the session, participants included, and promotes as many waiting users as there are
+     * seats left, or the whole waitlist if the session has no capacity. The session row is locked
+     * before anything is read, so that the waitlist seen here already reflects the cancellations
+     * that handed their seat over.
+     *
+     * @throws BadRequestException if the capacity is below the number of participants
+     */
+    @Transactional
     public Session update(Long id, Session session) {
+        int participants = session.getUsers() == null ? 0 : session.getUsers().size();
+        if (session.getCapacity() != null && session.getCapacity() < participants) {
+            throw new BadRequestException();
+        }
+
+        this.sessionRepository.lockSession(id);
         session.setId(id);
-        return this.sessionRepository.save(session);
+        Session updated = this.sessionRepository.save(session);
+        this.sessionRepository.recountSeats(id);
+
+        long freeSeats = session.getCapacity() == null
+                ? this.waitlistRepository.countBySessionId(id)
+                : session.getCapacity() - participants;
+        for (long seat = 0; seat < freeSeats; seat++) {
+            if (!promoteHead(id)) {
+                break;
+            }
+        }
+
+        return updated;
     }
 
-    public void participate(Long id, Long userId) {
-        Session session = this.sessionRepository.findById(id).orElse(null);
-        User user = this.userRepository.findById(userId).orElse(null);
-        if (session == null || user == null) {
+    /**
+     * Locks the session row, takes a seat with a conditional update of it, then adds the user with
+     * a single insert. Duplicates are detected by the primary key of PARTICIPATE, in which case the
+     * seat is given back by the rollback.
+     * <p>
+     * If the session is full and has its waitlist enabled, the user is queued instead. As the row
+     * is locked before anything else, a concurrent cancellation either sees the new entry and
+     * promotes it, or has already released the seat that is then taken here.
+     *
+     * @throws SessionFullException if the session has reached its capacity and has no waitlist
+     */
+    @Transactional
+    @QueryBudget(7)
+    public ParticipationStatus participate(Long id, Long userId) {
+        if (!this.sessionRepository.lockSession(id).isPresent()) {
             throw new NotFoundException();
         }
 
-        boolean alreadyParticipate = session.getUsers().stream().anyMatch(o -> o.getId().equals(userId));
-        if(alreadyParticipate) {
-            throw new BadRequestException();
+        if (this.sessionRepository.reserveSeat(id) == 0) {
+            if (!this.sessionRepository.lockWaitlist(id).isPresent()) {
+                throw new SessionFullException();
+            }
+
+            enqueue(id, userId);
+            return ParticipationStatus.WAITLISTED;
         }
 
-        session.getUsers().add(user);
+        try {
+            this.sessionRepository.addParticipant(id, userId);
+        } catch (DataIntegrityViolationException e) {
+            if (!this.userRepository.existsById(userId)) {
+                throw new NotFoundException();
+            }
 
-        this.sessionRepository.save(session);
+            throw new BadRequestException();
+        }
+
+        return ParticipationStatus.CONFIRMED;
     }
 
+    /**
+     * Removes the user from the participants, or from the waitlist if the user is only waiting. In
+     * a session with a waitlist, the seat is handed over to the head of the queue in the same
+     * transaction; the session row is locked first, which serializes concurrent cancellations and
+     * participations.
+     */
+    @Transactional
+    @QueryBudget(7)
     public void noLongerParticipate(Long id, Long userId) {
-        Session session = this.sessionRepository.findById(id).orElse(null);
-        if (session == null) {
+        if (!this.sessionRepository.lockSession(id).isPresent()) {
             throw new NotFoundException();
         }
 
-        boolean alreadyParticipate = session.getUsers().stream().anyMatch(o -> o.getId().equals(userId));
-        if(!alreadyParticipate) {
+        if (this.sessionRepository.removeParticipant(id, userId) == 0) {
+            if (this.waitlistRepository.removeEntry(id, userId) > 0) {
+                return;
+            }
+
+            throw new BadRequestException();
+        }
+
+        if (this.sessionRepository.releaseSeatWithoutWaitlist(id) == 0 && !handOverSeat(id)) {
+            this.sessionRepository.releaseSeat(id);
+        }
+    }
+
+    /**
+     * 1-based position of the user on the waitlist of the session, or null if the user is not
+     * waiting.
+     */
+    @QueryBudget(1)
+    public Long getWaitlistPosition(Long id, Long userId) {
+        long position = this.waitlistRepository.findPosition(id, userId);
+
+        return position == 0 ? null : position;
+    }
+
+    /**
+     * Queues the user; the caller holds the lock on the session row.
+     */
+    private void enqueue(Long id, Long userId) {
+        if (this.sessionRepository.countParticipant(id, userId) > 0
+                || this.waitlistRepository.existsBySessionIdAndUserId(id, userId)) {
             throw new BadRequestException();
         }
+        if (!this.userRepository.existsById(userId)) {
+            throw new NotFoundException();
+        }
+
+        this.waitlistRepository.save(WaitlistEntry.builder().sessionId(id).userId(userId).build());
+    }
+
+    /**
+     * Gives the seat of a cancelled participant to the head of the waitlist: one insert and one
+     * delete, whatever the length of the queue, and the seat count is left as it is.
+     *
+     * @return false if nobody is waiting
+     */
+    private boolean handOverSeat(Long id) {
+        if (!this.sessionRepository.lockWaitlist(id).isPresent()) {
+            return false;
+        }
+
+        Optional<WaitlistEntry> head = this.waitlistRepository.findFirstBySessionIdOrderByIdAsc(id);
+        if (!head.isPresent()) {
+            return false;
+        }
+
+        this.sessionRepository.addParticipant(id, head.get().getUserId());
+        this.waitlistRepository.delete(head.get());
+
+        return true;
+    }
+
+    /**
+     * Gives a free seat, if any, to the head of the waitlist; the caller holds the lock on the
+     * session row.
+     *
+     * @return true if a user was promoted
+     */
+    private boolean promoteHead(Long id) {
+        Optional<WaitlistEntry> head = this.waitlistRepository.findFirstBySessionIdOrderByIdAsc(id);
+        if (!head.isPresent() || this.sessionRepository.reserveSeat(id) == 0) {
+            return false;
+        }
+
+        this.sessionRepository.addParticipant(id, head.get().getUserId());
+        this.waitlistRepository.delete(head.get());
 
-        session.setUsers(session.getUsers().stream().filter(user -> !user.getId().equals(userId)).collect(Collectors.toList()));
+        return true;
+    }
+
+    /**
+     * Fills the participant ids of the given sessions, read from PARTICIPATE in one query.
+     */
+    private <C extends Iterable<SessionDto>> C withParticipants(C sessions) {
+        List<Long> sessionIds = new ArrayList<>();
+        sessions.forEach(session -> sessionIds.add(session.getId()));
+        if (sessionIds.isEmpty()) {
+            return sessions;
+        }
+
+        Map<Long, List<Long>> participantIds = groupBySession(this.sessionRepository.findParticipants(sessionIds));
+        sessions.forEach(session -> session.setUsers(participantIds.getOrDefault(session.getId(), new ArrayList<>())));
+
+        return sessions;
+    }
 
-        this.sessionRepository.save(session);
+    private static Map<Long, List<Long>> groupBySession(List<SessionParticipant> participants) {
+        return participants.stream().collect(Collectors.groupingBy(
+                SessionParticipant::getSessionId,
+                Collectors.mapping(SessionParticipant::getUserId, Collectors.toList())));
     }
 }
@@ -0,0 +1,313 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.openclassrooms.starterjwt.exception.ServiceUnavailableException;
+import com.openclassrooms.starterjwt.payload.request.SignupRequest;
+import com.openclassrooms.starterjwt.payload.response.UserImportResponse;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Imports users from a CSV (with an {@code email,firstName,lastName,password} header) or NDJSON
+ * stream of {@link SignupRequest}. Rows are read one at a time and written in batches of
+ * {@code oc.app.userImport.batchSize}, so memory does not grow with the file except for the set
+ * of emails already seen.
+ *
+ * <p>Per batch: one query for the emails already taken, the passwords hashed
+ * {@code oc.app.userImport.hashingParallelism} at a time through the application encoder (and
+ * so on its bounded pool, next to logins), and one JDBC batch insert in its own transaction.
+ * The insert bypasses Hibernate, whose {@code IDENTITY} ids on {@link com.openclassrooms.starterjwt.models.User}
+ * would otherwise send one insert per row; the ids are left to the database. Rows that fail
+ * validation or whose email is taken are reported, not imported. A malformed row stops the
+ * import, the batches before it are kept.
+ */
+@Service
+public class UserImportService {
+    static final String INSERT_USER = "insert into USERS (email, last_name, first_name, password, admin) values (?, ?, ?, ?, false)";
+
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final UserRepository userRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final Validator validator;
+
+    private final ObjectReader csvReader;
+
+    private final ObjectReader ndjsonReader;
+
+    private final ExecutorService hashingExecutor;
+
+    private final int batchSize;
+
+    public UserImportService(UserRepository userRepository,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             PasswordEncoder passwordEncoder,
+                             Validator validator,
+                             ObjectMapper objectMapper,
+                             @Value("${oc.app.userImport.batchSize:500}") int batchSize,
+                             @Value("${oc.app.userImport.hashingParallelism:2}") int hashingParallelism) {
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.csvReader = new CsvMapper()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .readerFor(SignupRequest.class)
+                .with(CsvSchema.emptySchema().withHeader());
+        this.ndjsonReader = objectMapper.readerFor(SignupRequest.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.batchSize = batchSize;
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("user-import-");
+        threadFactory.setDaemon(true);
+        this.hashingExecutor = Executors.newFixedThreadPool(hashingParallelism, threadFactory);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingExecutor.shutdownNow();
+    }
+
+    public UserImportResponse importCsv(InputStream input) throws IOException {
+        try (MappingIterator<SignupRequest> rows = csvReader.readValues(input)) {
+            return importRows(rows);
+        }
+    }
+
+    public UserImportResponse importNdjson(InputStream input) throws IOException {
+        try (MappingIterator<SignupRequest> rows = ndjsonReader.readValues(input)) {
+            return importRows(rows);
+        }
+    }
+
+    private UserImportResponse importRows(MappingIterator<SignupRequest> rows) {
+        Report report = new Report();
+        Set<String> seen = new HashSet<>();
+        List<Row> batch = new ArrayList<>(batchSize);
+        int rowNumber = 0;
+
+        try {
+            while (rows.hasNextValue()) {
+                SignupRequest request = rows.nextValue();
+                rowNumber++;
+
+                List<String> violations = validate(request);
+                if (!violations.isEmpty()) {
+                    report.reject(rowNumber, request.getEmail(), violations);
+                } else if (!seen.add(request.getEmail())) {
+                    report.reject(rowNumber, request.getEmail(), "email: repeated in the file");
+                } else {
+                    batch.add(new Row(rowNumber, request));
+                    if (batch.size() == batchSize) {
+                        write(batch, report);
+                        batch.clear();
+                    }
+                }
+            }
+        } catch (IOException | RuntimeJsonMappingException e) {
+            String message = e instanceof JsonProcessingException
+                    ? ((JsonProcessingException) e).getOriginalMessage()
+                    : e.getMessage();
+            report.reject(rowNumber + 1, null, "malformed row, import stopped: " + message);
+        }
+        write(batch, report);
+
+        return report.toResponse();
+    }
+
+    /**
+     * Hashes the passwords {@code oc.app.userImport.hashingParallelism} at a time, on the same
+     * threads as the imports, and returns the hashes in the same order.
+     *
+     * @throws ServiceUnavailableException if the application encoder rejected one of them
+     */
+    public List<String> encodePasswords(List<String> passwords) {
+        List<CompletableFuture<String>> hashes = passwords.stream()
+                .map(password -> CompletableFuture.supplyAsync(() -> passwordEncoder.encode(password), hashingExecutor))
+                .collect(Collectors.toList());
+
+        try {
+            return hashes.stream().map(CompletableFuture::join).collect(Collectors.toList());
+        } catch (CompletionException e) {
+            hashes.forEach(hash -> hash.cancel(false));
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ServiceUnavailableException();
+        }
+    }
+
+    /**
+     * Inserts the users with one JDBC batch in its own transaction, each with the hash at the same
+     * index. Nothing is inserted if one of the emails is taken.
+     *
+     * @throws DataIntegrityViolationException if one of the emails is taken
+     */
+    public void insertAll(List<SignupRequest> requests, List<String> hashes) {
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INSERT_USER, new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        SignupRequest request = requests.get(i);
+                        statement.setString(1, request.getEmail());
+                        statement.setString(2, request.getLastName());
+                        statement.setString(3, request.getFirstName());
+                        statement.setString(4, hashes.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return requests.size();
+                    }
+                }));
+    }
+
+    private List<String> validate(SignupRequest request) {
+        Set<ConstraintViolation<SignupRequest>> violations = validator.validate(request);
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private void write(List<Row> batch, Report report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        Set<String> taken = userRepository.findExistingEmails(
+                batch.stream().map(row -> row.request.getEmail()).collect(Collectors.toList()));
+        List<Row> rows = new ArrayList<>(batch.size());
+        for (Row row : batch) {
+            if (taken.contains(row.request.getEmail())) {
+                report.reject(row.number, row.request.getEmail(), "email: already taken");
+            } else {
+                rows.add(row);
+            }
+        }
+
+        List<Row> hashed = hash(rows, report);
+        if (hashed.isEmpty()) {
+            return;
+        }
+
+        try {
+            insertAll(hashed.stream().map(row -> row.request).collect(Collectors.toList()),
+                    hashed.stream().map(row -> row.hash).collect(Collectors.toList()));
+            report.imported += hashed.size();
+        } catch (DataIntegrityViolationException e) {
+            // An email was taken since the check: insert one by one to find which
+            for (Row row : hashed) {
+                insertOne(row, report);
+            }
+        }
+    }
+
+    private void insertOne(Row row, Report report) {
+        try {
+            jdbcTemplate.update(INSERT_USER, row.request.getEmail(), row.request.getLastName(),
+                    row.request.getFirstName(), row.hash);
+            report.imported++;
+        } catch (DataIntegrityViolationException e) {
+            report.reject(row.number, row.request.getEmail(), "email: already taken");
+        }
+    }
+
+    private List<Row> hash(List<Row> rows, Report report) {
+        List<CompletableFuture<String>> hashes = rows.stream()
+                .map(row -> CompletableFuture.supplyAsync(
+                        () -> passwordEncoder.encode(row.request.getPassword()), hashingExecutor))
+                .collect(Collectors.toList());
+
+        List<Row> hashed = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Row row = rows.get(i);
+            try {
+                row.hash = hashes.get(i).join();
+                hashed.add(row);
+            } catch (CompletionException e) {
+                report.reject(row.number, row.request.getEmail(), "password: could not be hashed, retry later");
+            }
+        }
+        return hashed;
+    }
+
+    private static final class Row {
+        private final int number;
+
+        private final SignupRequest request;
+
+        private String hash;
+
+        private Row(int number, SignupRequest request) {
+            this.number = number;
+            this.request = request;
+        }
+    }
+
+    private static final class Report {
+        private int imported;
+
+        private int failed;
+
+        private final List<UserImportResponse.RowError> errors = new ArrayList<>();
+
+        private void reject(int row, String email, String message) {
+            reject(row, email, Collections.singletonList(message));
+        }
+
+        private void reject(int row, String email, List<String> messages) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new UserImportResponse.RowError(row, email, messages));
+            }
+        }
+
+        private UserImportResponse toResponse() {
+            errors.sort(Comparator.comparingInt(UserImportResponse.RowError::getRow));
+            return new UserImportResponse(imported, failed, errors);
+        }
+    }
+}
@@ -1,22 +1,58 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.services.CachingUserDetailsService;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Service
 public class UserService {
     private final UserRepository userRepository;
 
-    public UserService(UserRepository userRepository) {
+    private final CachingUserDetailsService userDetailsService;
+
+    public UserService(UserRepository userRepository, CachingUserDetailsService userDetailsService) {
         this.userRepository = userRepository;
+        this.userDetailsService = userDetailsService;
     }
 
     public void delete(Long id) {
         this.userRepository.deleteById(id);
+        this.userDetailsService.evictUser(id);
     }
 
     public User findById(Long id) {
         return this.userRepository.findById(id).orElse(null);
     }
+
+    /**
+     * Loads the users with the given ids in one query, in the order of the ids and without
+     * duplicates.
+     *
+     * @throws BadRequestException if an id is null or matches no user
+     */
+    public List<User> findAllById(List<Long> ids) {
+        List<Long> distinctIds = ids.stream().distinct().collect(Collectors.toList());
+        if (distinctIds.contains(null)) {
+            throw new BadRequestException();
+        }
+        if (distinctIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, User> users = this.userRepository.findAllById(distinctIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        if (users.size() != distinctIds.size()) {
+            throw new BadRequestException();
+        }
+
+        return distinctIds.stream().map(users::get).collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,19 @@
+-- One row per participation, found from either side without scanning the join table.
+-- Databases baselined from script.sql may hold rows with a null id or the same participation
+-- twice: nulls are dropped and the distinct rows copied into the keyed table.
+DELETE FROM PARTICIPATE WHERE session_id IS NULL OR user_id IS NULL;
+
+CREATE TABLE PARTICIPATE_DISTINCT (
+  user_id INT NOT NULL,
+  session_id INT NOT NULL,
+  CONSTRAINT PK_PARTICIPATE PRIMARY KEY (session_id, user_id)
+);
+
+INSERT INTO PARTICIPATE_DISTINCT (user_id, session_id) SELECT DISTINCT user_id, session_id FROM PARTICIPATE;
+
+DROP TABLE PARTICIPATE;
+ALTER TABLE PARTICIPATE_DISTINCT RENAME TO PARTICIPATE;
+
+CREATE INDEX IDX_PARTICIPATE_USER_ID ON PARTICIPATE (user_id);
+ALTER TABLE PARTICIPATE ADD FOREIGN KEY (user_id) REFERENCES USERS (id);
+ALTER TABLE PARTICIPATE ADD FOREIGN KEY (session_id) REFERENCES SESSIONS (id);
@@ -0,0 +1,18 @@
+ALTER TABLE SESSIONS ADD capacity INT;
+ALTER TABLE SESSIONS ADD seats_taken INT NOT NULL DEFAULT 0;
+ALTER TABLE SESSIONS ADD waitlist_enabled BOOLEAN NOT NULL DEFAULT false;
+
+UPDATE SESSIONS SET seats_taken = (SELECT COUNT(*) FROM PARTICIPATE WHERE PARTICIPATE.session_id = SESSIONS.id);
+
+CREATE TABLE WAITLIST (
+  id INT PRIMARY KEY AUTO_INCREMENT,
+  session_id INT NOT NULL,
+  user_id INT NOT NULL,
+  created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  CONSTRAINT UK_WAITLIST_SESSION_USER UNIQUE (session_id, user_id)
+);
+
+CREATE INDEX IDX_WAITLIST_SESSION_ID ON WAITLIST (session_id, id);
+
+ALTER TABLE WAITLIST ADD FOREIGN KEY (user_id) REFERENCES USERS (id);
+ALTER TABLE WAITLIST ADD FOREIGN KEY (session_id) REFERENCES SESSIONS (id);
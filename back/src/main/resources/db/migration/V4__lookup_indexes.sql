@@ -0,0 +1,45 @@
+-- Session listing in (date, id) order and keyset paging.
+CREATE INDEX IDX_SESSIONS_DATE_ID ON SESSIONS (date, id);
+CREATE INDEX IDX_SESSIONS_TEACHER_ID ON SESSIONS (teacher_id);
+
+-- Login and signup look users up by email.
+-- Databases baselined from script.sql may hold the same email more than once, in any case: the
+-- oldest account is kept and the participations of the others are moved to it. The waitlist,
+-- created empty by V3, only loses the entries of the removed accounts.
+CREATE TABLE USERS_DUPLICATE (
+  id INT NOT NULL PRIMARY KEY,
+  kept_id INT NOT NULL
+);
+
+INSERT INTO USERS_DUPLICATE (id, kept_id)
+  SELECT USERS.id, KEPT.id
+  FROM USERS
+  JOIN (SELECT LOWER(email) AS email, MIN(id) AS id FROM USERS WHERE email IS NOT NULL GROUP BY LOWER(email)) KEPT
+    ON LOWER(USERS.email) = KEPT.email
+  WHERE USERS.id <> KEPT.id;
+
+CREATE TABLE PARTICIPATE_MOVED (
+  user_id INT NOT NULL,
+  session_id INT NOT NULL
+);
+
+INSERT INTO PARTICIPATE_MOVED (user_id, session_id)
+  SELECT DISTINCT USERS_DUPLICATE.kept_id, PARTICIPATE.session_id
+  FROM PARTICIPATE
+  JOIN USERS_DUPLICATE ON PARTICIPATE.user_id = USERS_DUPLICATE.id;
+
+DELETE FROM PARTICIPATE WHERE user_id IN (SELECT id FROM USERS_DUPLICATE);
+DELETE FROM PARTICIPATE_MOVED WHERE EXISTS (
+  SELECT 1 FROM PARTICIPATE
+  WHERE PARTICIPATE.user_id = PARTICIPATE_MOVED.user_id AND PARTICIPATE.session_id = PARTICIPATE_MOVED.session_id);
+INSERT INTO PARTICIPATE (user_id, session_id) SELECT user_id, session_id FROM PARTICIPATE_MOVED;
+
+DELETE FROM WAITLIST WHERE user_id IN (SELECT id FROM USERS_DUPLICATE);
+DELETE FROM USERS WHERE id IN (SELECT id FROM USERS_DUPLICATE);
+
+UPDATE SESSIONS SET seats_taken = (SELECT COUNT(*) FROM PARTICIPATE WHERE PARTICIPATE.session_id = SESSIONS.id);
+
+DROP TABLE PARTICIPATE_MOVED;
+DROP TABLE USERS_DUPLICATE;
+
+ALTER TABLE USERS ADD CONSTRAINT UK_USERS_EMAIL UNIQUE (email);
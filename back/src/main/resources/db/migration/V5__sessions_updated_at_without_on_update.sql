@@ -0,0 +1,3 @@
+-- updated_at is maintained by JPA auditing when a session is edited. The seat counter is changed by
+-- native updates of the row, which must not bump it.
+ALTER TABLE SESSIONS MODIFY updated_at DATETIME DEFAULT CURRENT_TIMESTAMP;
@@ -0,0 +1,64 @@
+package com.openclassrooms.starterjwt;
+
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.web.server.LocalManagementPort;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "management.server.port=0")
+@ActiveProfiles("test")
+@AutoConfigureMetrics
+class MetricsEndpointTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Test
+    void prometheus_ShouldBeServedOnTheManagementPortWithoutAuthentication() {
+        restTemplate.getForEntity("/api/session", String.class);
+        teacherRepository.findAll();
+
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                "http://127.0.0.1:" + managementPort + "/actuator/prometheus", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+                .contains("http_server_requests_seconds_count{application=\"yoga-app\"")
+                .contains("spring_data_repository_invocations_seconds_count{application=\"yoga-app\"")
+                .contains("repository=\"TeacherRepository\"")
+                .contains("jwt_verifications_total{application=\"yoga-app\",outcome=\"valid\"")
+                .contains("cache_gets_total{application=\"yoga-app\",cache=\"jwt.tokens\"")
+                .contains("cache_gets_total{application=\"yoga-app\",cache=\"user.details\"")
+                .contains("hikaricp_connections_active");
+    }
+
+    @Test
+    void health_ShouldBeServedOnTheManagementPort() {
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                "http://127.0.0.1:" + managementPort + "/actuator/health", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void actuator_ShouldNotBeServedOnTheApplicationPort() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/actuator/prometheus", String.class);
+
+        assertThat(response.getStatusCode()).isNotEqualTo(HttpStatus.OK);
+    }
+}
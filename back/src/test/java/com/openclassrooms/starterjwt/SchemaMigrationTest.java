@@ -0,0 +1,134 @@
+package com.openclassrooms.starterjwt;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SchemaMigrationTest {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void migrations_ShouldAllBeApplied() {
+        assertThat(flyway.info().pending()).isEmpty();
+        assertThat(flyway.info().current().getVersion().getVersion()).isEqualTo("5");
+    }
+
+    @Test
+    void participate_ShouldHaveCompositePrimaryKeyAndReverseIndex() {
+        assertThat(primaryKeyColumns("PARTICIPATE")).containsExactly("SESSION_ID", "USER_ID");
+        assertThat(indexColumns("PARTICIPATE", "IDX_PARTICIPATE_USER_ID")).containsExactly("USER_ID");
+    }
+
+    @Test
+    void sessions_ShouldBeIndexedByDateThenIdAndByTeacher() {
+        assertThat(indexColumns("SESSIONS", "IDX_SESSIONS_DATE_ID")).containsExactly("DATE", "ID");
+        assertThat(indexColumns("SESSIONS", "IDX_SESSIONS_TEACHER_ID")).containsExactly("TEACHER_ID");
+    }
+
+    @Test
+    void waitlist_ShouldBeIndexedBySessionInQueueOrder() {
+        assertThat(indexColumns("WAITLIST", "IDX_WAITLIST_SESSION_ID")).containsExactly("SESSION_ID", "ID");
+    }
+
+    @Test
+    void users_ShouldHaveUniqueEmail() {
+        assertThat(jdbcTemplate.queryForList(
+                "select column_name from information_schema.indexes"
+                        + " where table_name = 'USERS' and index_name like 'UK_USERS_EMAIL%' and non_unique = false",
+                String.class)).containsExactly("EMAIL");
+    }
+
+    @Test
+    void sessions_SeatUpdate_ShouldNotTouchUpdatedAt() {
+        jdbcTemplate.update("insert into SESSIONS (name, description, date, updated_at)"
+                + " values ('Counter', 'Seat update', current_timestamp, timestamp '2020-01-01 10:00:00')");
+        try {
+            jdbcTemplate.update("update SESSIONS set seats_taken = seats_taken + 1 where name = 'Counter'");
+
+            assertThat(jdbcTemplate.queryForObject(
+                    "select updated_at from SESSIONS where name = 'Counter'", Timestamp.class))
+                    .isEqualTo(Timestamp.valueOf("2020-01-01 10:00:00"));
+        } finally {
+            jdbcTemplate.update("delete from SESSIONS where name = 'Counter'");
+        }
+    }
+
+    @Test
+    void participate_BaselinedWithNullAndDuplicateRows_ShouldMigrate() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:legacy;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate legacy = new JdbcTemplate(dataSource);
+        try {
+            Flyway.configure().dataSource(dataSource).target("1").load().migrate();
+            legacy.update("insert into USERS (id, last_name, first_name, email, password) values (1, 'A', 'A', 'a@test.com', 'x')");
+            legacy.update("insert into USERS (id, last_name, first_name, email, password) values (2, 'B', 'B', 'b@test.com', 'x')");
+            legacy.update("insert into SESSIONS (id, name, description, date) values (1, 'Yoga', 'Yoga', current_timestamp)");
+            legacy.update("insert into PARTICIPATE (user_id, session_id) values (1, 1), (1, 1), (2, 1), (null, 1), (2, null)");
+
+            Flyway.configure().dataSource(dataSource).load().migrate();
+
+            assertThat(legacy.queryForList("select user_id from PARTICIPATE where session_id = 1 order by user_id",
+                    Integer.class)).containsExactly(1, 2);
+            assertThat(legacy.queryForObject("select count(*) from PARTICIPATE", Integer.class)).isEqualTo(2);
+            assertThat(legacy.queryForObject("select seats_taken from SESSIONS where id = 1", Integer.class)).isEqualTo(2);
+        } finally {
+            legacy.execute("drop all objects");
+        }
+    }
+
+    @Test
+    void users_BaselinedWithDuplicateEmails_ShouldMergeIntoTheOldestAccount() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:legacy-users;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate legacy = new JdbcTemplate(dataSource);
+        try {
+            Flyway.configure().dataSource(dataSource).target("1").load().migrate();
+            legacy.update("insert into USERS (id, last_name, first_name, email, password) values (1, 'A', 'A', 'a@test.com', 'x')");
+            legacy.update("insert into USERS (id, last_name, first_name, email, password) values (2, 'A', 'A', 'A@test.com', 'x')");
+            legacy.update("insert into USERS (id, last_name, first_name, email, password) values (3, 'B', 'B', 'b@test.com', 'x')");
+            legacy.update("insert into SESSIONS (id, name, description, date) values (1, 'Yoga', 'Yoga', current_timestamp)");
+            legacy.update("insert into SESSIONS (id, name, description, date) values (2, 'Pilates', 'Pilates', current_timestamp)");
+            legacy.update("insert into PARTICIPATE (user_id, session_id) values (1, 1), (2, 1), (2, 2), (3, 2)");
+
+            Flyway.configure().dataSource(dataSource).load().migrate();
+
+            assertThat(legacy.queryForList("select id from USERS order by id", Integer.class)).containsExactly(1, 3);
+            assertThat(legacy.queryForList("select session_id from PARTICIPATE where user_id = 1 order by session_id",
+                    Integer.class)).containsExactly(1, 2);
+            assertThat(legacy.queryForList("select seats_taken from SESSIONS order by id", Integer.class))
+                    .containsExactly(1, 2);
+        } finally {
+            legacy.execute("drop all objects");
+        }
+    }
+
+    private List<String> primaryKeyColumns(String table) {
+        return jdbcTemplate.queryForList(
+                "select column_name from information_schema.indexes"
+                        + " where table_name = ? and primary_key = true order by ordinal_position",
+                String.class, table);
+    }
+
+    private List<String> indexColumns(String table, String index) {
+        return jdbcTemplate.queryForList(
+                "select column_name from information_schema.indexes"
+                        + " where table_name = ? and index_name = ? order by ordinal_position",
+                String.class, table, index);
+    }
+}
@@ -2,28 +2,50 @@ package com.openclassrooms.starterjwt.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.request.BulkSignupRequest;
 import com.openclassrooms.starterjwt.payload.request.LoginRequest;
 import com.openclassrooms.starterjwt.payload.request.SignupRequest;
 import com.openclassrooms.starterjwt.repository.UserRepository;
 import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import com.openclassrooms.starterjwt.services.UserImportService;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.sql.BatchUpdateException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -46,6 +68,9 @@ class AuthControllerTest {
     @MockBean
     private UserRepository userRepository;
 
+    @MockBean
+    private UserImportService userImportService;
+
     @Autowired
     public AuthControllerTest(
             MockMvc mockMvc,
@@ -99,6 +124,36 @@ class AuthControllerTest {
                 .andExpect(jsonPath("$.admin").value(false));
     }
 
+    @Test
+    void login_WithAdminPrincipal_ShouldReturnAdminWithoutQueryingUsers() throws Exception {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("admin@test.com");
+        loginRequest.setPassword("password");
+
+        UserDetailsImpl userDetails = UserDetailsImpl.builder()
+                .id(2L)
+                .username("admin@test.com")
+                .firstName("Admin")
+                .lastName("User")
+                .admin(true)
+                .build();
+
+        Authentication authentication = new UsernamePasswordAuthenticationToken(
+                userDetails, null, userDetails.getAuthorities());
+
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenReturn(authentication);
+        when(jwtUtils.generateJwtToken(authentication)).thenReturn("fake-jwt-token");
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.admin").value(true));
+
+        verifyNoInteractions(userRepository);
+    }
+
     @Test
     void register_WithValidData_ShouldReturnSuccessMessage() throws Exception {
         SignupRequest signupRequest = new SignupRequest();
@@ -107,7 +162,6 @@ class AuthControllerTest {
         signupRequest.setLastName("User");
         signupRequest.setPassword("password123");
 
-        when(userRepository.existsByEmail("newuser@test.com")).thenReturn(false);
         when(userRepository.save(any(User.class))).thenReturn(new User());
 
         mockMvc.perform(post("/api/auth/register")
@@ -125,7 +179,7 @@ class AuthControllerTest {
         signupRequest.setLastName("User");
         signupRequest.setPassword("password123");
 
-        when(userRepository.existsByEmail("existing@test.com")).thenReturn(true);
+        when(userRepository.save(any(User.class))).thenThrow(violation("PUBLIC.UK_USERS_EMAIL_INDEX_4 ON PUBLIC.USERS(EMAIL)"));
 
         mockMvc.perform(post("/api/auth/register")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -133,4 +187,173 @@ class AuthControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.message").value("Error: Email is already taken!"));
     }
+
+    @Test
+    void register_WithOtherConstraintViolation_ShouldRethrow() {
+        SignupRequest signupRequest = new SignupRequest();
+        signupRequest.setEmail("new@test.com");
+        signupRequest.setFirstName("New");
+        signupRequest.setLastName("User");
+        signupRequest.setPassword("password123");
+
+        when(userRepository.save(any(User.class))).thenThrow(violation("PUBLIC.CONSTRAINT_4D"));
+
+        assertThatThrownBy(() -> mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(signupRequest))))
+                .hasCauseInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void login_RepeatedlySuccessful_ShouldNotBeThrottled() throws Exception {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("frequent@test.com");
+        loginRequest.setPassword("password");
+
+        UserDetailsImpl userDetails = UserDetailsImpl.builder()
+                .id(1L)
+                .username("frequent@test.com")
+                .firstName("Test")
+                .lastName("User")
+                .password("password")
+                .build();
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenReturn(new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+
+        for (int i = 0; i < 10; i++) {
+            String address = "10.0.1." + i;
+            mockMvc.perform(post("/api/auth/login")
+                            .with(request -> {
+                                request.setRemoteAddr(address);
+                                return request;
+                            })
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(loginRequest)))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    void login_OverEmailAttempts_ShouldReturnTooManyRequests() throws Exception {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("throttled@test.com");
+        loginRequest.setPassword("wrong");
+
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenThrow(new BadCredentialsException("Bad credentials"));
+
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(post("/api/auth/login")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(loginRequest)))
+                    .andExpect(status().isUnauthorized());
+        }
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void registerBulk_AsAdmin_ShouldSkipTakenAndRepeatedEmails() throws Exception {
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Collections.singleton("Taken@test.com"));
+        when(userImportService.encodePasswords(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        mockMvc.perform(post("/api/auth/register/bulk")
+                        .with(user(principal(true)))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bulk(
+                                "first@test.com", "taken@test.com", "second@test.com", "First@Test.com"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.registered").value(2))
+                .andExpect(jsonPath("$.alreadyTaken[0]").value("First@Test.com"))
+                .andExpect(jsonPath("$.alreadyTaken[1]").value("taken@test.com"));
+
+        verify(userRepository).findExistingEmails(argThat(emails -> new ArrayList<>(emails)
+                .equals(Arrays.asList("first@test.com", "taken@test.com", "second@test.com"))));
+        verify(userImportService).insertAll(
+                argThat(requests -> requests.stream().map(SignupRequest::getEmail).collect(Collectors.toList())
+                        .equals(Arrays.asList("first@test.com", "second@test.com"))),
+                eq(Arrays.asList("password123", "password123")));
+        verify(userRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void registerBulk_WithConcurrentlyTakenEmail_ShouldReturnBadRequest() throws Exception {
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Collections.emptySet());
+        when(userImportService.encodePasswords(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        doThrow(new DuplicateKeyException("could not execute batch",
+                new BatchUpdateException("Unique index or primary key violation: \"PUBLIC.UK_USERS_EMAIL_INDEX_4 ON PUBLIC.USERS(EMAIL)\"", new int[0])))
+                .when(userImportService).insertAll(anyList(), anyList());
+
+        mockMvc.perform(post("/api/auth/register/bulk")
+                        .with(user(principal(true)))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bulk("first@test.com"))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Error: Email is already taken!"));
+    }
+
+    @Test
+    void registerBulk_AsNonAdmin_ShouldReturnForbidden() throws Exception {
+        mockMvc.perform(post("/api/auth/register/bulk")
+                        .with(user(principal(false)))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bulk("first@test.com"))))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(userImportService);
+    }
+
+    @Test
+    void registerBulk_Anonymous_ShouldReturnUnauthorized() throws Exception {
+        mockMvc.perform(post("/api/auth/register/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bulk("first@test.com"))))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(userImportService);
+    }
+
+    @Test
+    void registerBulk_WithInvalidUser_ShouldReturnBadRequest() throws Exception {
+        BulkSignupRequest request = bulk("first@test.com");
+        request.getUsers().get(0).setPassword("123");
+
+        mockMvc.perform(post("/api/auth/register/bulk")
+                        .with(user(principal(true)))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
+    private DataIntegrityViolationException violation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("Unique index or primary key violation", new SQLException(), constraintName));
+    }
+
+    private UserDetailsImpl principal(boolean admin) {
+        return UserDetailsImpl.builder()
+                .id(1L)
+                .username("admin@test.com")
+                .firstName("Admin")
+                .lastName("Admin")
+                .admin(admin)
+                .password("password")
+                .build();
+    }
+
+    private BulkSignupRequest bulk(String... emails) {
+        BulkSignupRequest request = new BulkSignupRequest();
+        request.setUsers(new ArrayList<>());
+        for (String email : emails) {
+            SignupRequest signupRequest = new SignupRequest();
+            signupRequest.setEmail(email);
+            signupRequest.setFirstName("New");
+            signupRequest.setLastName("User");
+            signupRequest.setPassword("password123");
+            request.getUsers().add(signupRequest);
+        }
+        return request;
+    }
 }
@@ -2,9 +2,12 @@ package com.openclassrooms.starterjwt.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.exception.SessionFullException;
 import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.services.SessionCursor;
+import com.openclassrooms.starterjwt.services.ParticipationStatus;
 import com.openclassrooms.starterjwt.services.SessionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,6 +15,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
@@ -23,9 +28,12 @@ import java.util.Date;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -86,8 +94,7 @@ class SessionControllerTest {
     @Test
     @WithMockUser
     void findById_WithValidId_ShouldReturnSession() throws Exception {
-        when(sessionService.getById(1L)).thenReturn(testSession);
-        when(sessionMapper.toDto(testSession)).thenReturn(testSessionDto);
+        when(sessionService.getDtoById(1L)).thenReturn(testSessionDto);
 
         mockMvc.perform(get("/api/session/1"))
                 .andExpect(status().isOk())
@@ -95,19 +102,20 @@ class SessionControllerTest {
                 .andExpect(jsonPath("$.name").value("Yoga Session"))
                 .andExpect(jsonPath("$.description").value("A relaxing yoga session"));
 
-        verify(sessionService, times(1)).getById(1L);
-        verify(sessionMapper, times(1)).toDto(testSession);
+        verify(sessionService, times(1)).getDtoById(1L);
+        verify(sessionService, never()).getById(anyLong());
+        verify(sessionMapper, never()).toDto(any(Session.class));
     }
 
     @Test
     @WithMockUser
     void findById_WithNonExistentId_ShouldReturnNotFound() throws Exception {
-        when(sessionService.getById(999L)).thenReturn(null);
+        when(sessionService.getDtoById(999L)).thenReturn(null);
 
         mockMvc.perform(get("/api/session/999"))
                 .andExpect(status().isNotFound());
 
-        verify(sessionService, times(1)).getById(999L);
+        verify(sessionService, times(1)).getDtoById(999L);
     }
 
     @Test
@@ -116,22 +124,12 @@ class SessionControllerTest {
         mockMvc.perform(get("/api/session/invalid"))
                 .andExpect(status().isBadRequest());
 
-        verify(sessionService, never()).getById(anyLong());
+        verify(sessionService, never()).getDtoById(anyLong());
     }
 
     @Test
     @WithMockUser
-    void findAll_ShouldReturnListOfSessions() throws Exception {
-        Session session2 = Session.builder()
-                .id(2L)
-                .name("Meditation Session")
-                .date(new Date())
-                .description("A peaceful meditation session")
-                .teacher(testTeacher)
-                .createdAt(LocalDateTime.now())
-                .updatedAt(LocalDateTime.now())
-                .build();
-
+    void findAll_WithoutParameters_ShouldReturnFirstKeysetPage() throws Exception {
         SessionDto sessionDto2 = new SessionDto();
         sessionDto2.setId(2L);
         sessionDto2.setName("Meditation Session");
@@ -139,21 +137,100 @@ class SessionControllerTest {
         sessionDto2.setDescription("A peaceful meditation session");
         sessionDto2.setTeacher_id(1L);
 
-        List<Session> sessions = Arrays.asList(testSession, session2);
         List<SessionDto> sessionDtos = Arrays.asList(testSessionDto, sessionDto2);
+        String nextCursor = SessionCursor.of(sessionDto2).encode();
 
-        when(sessionService.findAll()).thenReturn(sessions);
-        when(sessionMapper.toDto(sessions)).thenReturn(sessionDtos);
+        when(sessionService.findAfter(null, SessionController.DEFAULT_PAGE_SIZE))
+                .thenReturn(new SliceImpl<>(sessionDtos, PageRequest.of(0, SessionController.DEFAULT_PAGE_SIZE), true));
 
         mockMvc.perform(get("/api/session"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].id").value(1))
-                .andExpect(jsonPath("$[0].name").value("Yoga Session"))
-                .andExpect(jsonPath("$[1].id").value(2))
-                .andExpect(jsonPath("$[1].name").value("Meditation Session"));
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.content[0].name").value("Yoga Session"))
+                .andExpect(jsonPath("$.content[1].id").value(2))
+                .andExpect(jsonPath("$.content[1].name").value("Meditation Session"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.nextCursor").value(nextCursor))
+                .andExpect(jsonPath("$.next").value("http://localhost/api/session?size="
+                        + SessionController.DEFAULT_PAGE_SIZE + "&cursor=" + nextCursor));
+
+        verify(sessionService, times(1)).findAfter(null, SessionController.DEFAULT_PAGE_SIZE);
+        verify(sessionMapper, never()).toDto(anyList());
+    }
+
+    @Test
+    @WithMockUser
+    void findAll_WithPage_ShouldReturnPageAndNextLink() throws Exception {
+        List<SessionDto> sessions = Arrays.asList(testSessionDto);
+        when(sessionService.findPage(0, 1)).thenReturn(new SliceImpl<>(sessions, PageRequest.of(0, 1), true));
+
+        mockMvc.perform(get("/api/session").param("page", "0").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.nextCursor").value(SessionCursor.of(testSessionDto).encode()))
+                .andExpect(jsonPath("$.next").value("http://localhost/api/session?size=1&page=1"))
+                .andExpect(header().string("Link", "<http://localhost/api/session?size=1&page=1>; rel=\"next\""));
 
-        verify(sessionService, times(1)).findAll();
-        verify(sessionMapper, times(1)).toDto(sessions);
+        verify(sessionService, never()).findAfter(any(), anyInt());
+    }
+
+    @Test
+    @WithMockUser
+    void findAll_WithSizeOnly_ShouldReturnFirstKeysetPage() throws Exception {
+        List<SessionDto> sessions = Arrays.asList(testSessionDto);
+        String nextCursor = SessionCursor.of(testSessionDto).encode();
+        when(sessionService.findAfter(null, 1)).thenReturn(new SliceImpl<>(sessions, PageRequest.of(0, 1), true));
+
+        mockMvc.perform(get("/api/session").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.nextCursor").value(nextCursor))
+                .andExpect(jsonPath("$.next").value("http://localhost/api/session?size=1&cursor=" + nextCursor));
+    }
+
+    @Test
+    @WithMockUser
+    void findAll_WithCursor_ShouldReturnLastPageWithoutNext() throws Exception {
+        SessionCursor cursor = new SessionCursor(1000L, 1L);
+        List<SessionDto> sessions = Arrays.asList(testSessionDto);
+        when(sessionService.findAfter(cursor, SessionController.DEFAULT_PAGE_SIZE))
+                .thenReturn(new SliceImpl<>(sessions, PageRequest.of(0, SessionController.DEFAULT_PAGE_SIZE), false));
+
+        mockMvc.perform(get("/api/session").param("cursor", cursor.encode()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist())
+                .andExpect(jsonPath("$.next").doesNotExist())
+                .andExpect(header().doesNotExist("Link"));
+    }
+
+    @Test
+    @WithMockUser
+    void findAll_WithInvalidCursor_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/session").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+
+        verify(sessionService, never()).findAfter(any(), anyInt());
+    }
+
+    @Test
+    @WithMockUser
+    void findAll_WithSizeAboveMaximum_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/session").param("size", String.valueOf(SessionController.MAX_PAGE_SIZE + 1)))
+                .andExpect(status().isBadRequest());
+
+        verify(sessionService, never()).findAfter(any(), anyInt());
+    }
+
+    @Test
+    @WithMockUser
+    void findAll_WithPageAndCursor_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/session").param("page", "1").param("cursor", new SessionCursor(1000L, 1L).encode()))
+                .andExpect(status().isBadRequest());
+
+        verify(sessionService, never()).findPage(anyInt(), anyInt());
     }
 
     @Test
@@ -241,7 +318,7 @@ class SessionControllerTest {
     @Test
     @WithMockUser
     void participate_WithValidIds_ShouldReturnOk() throws Exception {
-        doNothing().when(sessionService).participate(1L, 1L);
+        when(sessionService.participate(1L, 1L)).thenReturn(ParticipationStatus.CONFIRMED);
 
         mockMvc.perform(post("/api/session/1/participate/1"))
                 .andExpect(status().isOk());
@@ -249,6 +326,54 @@ class SessionControllerTest {
         verify(sessionService, times(1)).participate(1L, 1L);
     }
 
+    @Test
+    @WithMockUser
+    void participate_WhenWaitlisted_ShouldReturnAcceptedWithPosition() throws Exception {
+        when(sessionService.participate(1L, 2L)).thenReturn(ParticipationStatus.WAITLISTED);
+        when(sessionService.getWaitlistPosition(1L, 2L)).thenReturn(4L);
+
+        mockMvc.perform(post("/api/session/1/participate/2"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.position").value(4));
+    }
+
+    @Test
+    @WithMockUser
+    void waitlistPosition_WhenWaiting_ShouldReturnPosition() throws Exception {
+        when(sessionService.getWaitlistPosition(1L, 2L)).thenReturn(3L);
+
+        mockMvc.perform(get("/api/session/1/waitlist/2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.position").value(3));
+    }
+
+    @Test
+    @WithMockUser
+    void waitlistPosition_WhenNotWaiting_ShouldReturnNotFound() throws Exception {
+        when(sessionService.getWaitlistPosition(1L, 2L)).thenReturn(null);
+
+        mockMvc.perform(get("/api/session/1/waitlist/2"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser
+    void waitlistPosition_WithInvalidIds_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/session/1/waitlist/invalid"))
+                .andExpect(status().isBadRequest());
+
+        verify(sessionService, never()).getWaitlistPosition(anyLong(), anyLong());
+    }
+
+    @Test
+    @WithMockUser
+    void participate_WhenSessionIsFull_ShouldReturnConflict() throws Exception {
+        doThrow(new SessionFullException()).when(sessionService).participate(1L, 2L);
+
+        mockMvc.perform(post("/api/session/1/participate/2"))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     @WithMockUser
     void participate_WithInvalidIds_ShouldReturnBadRequest() throws Exception {
@@ -3,6 +3,10 @@ package com.openclassrooms.starterjwt.controllers;
 import com.openclassrooms.starterjwt.dto.UserDto;
 import com.openclassrooms.starterjwt.mapper.UserMapper;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.response.UserImportResponse;
+import com.openclassrooms.starterjwt.security.jwt.JwtTokenCache;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import com.openclassrooms.starterjwt.services.UserImportService;
 import com.openclassrooms.starterjwt.services.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,16 +14,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -36,6 +46,12 @@ class UserControllerTest {
     @MockBean
     private UserMapper userMapper;
 
+    @MockBean
+    private JwtTokenCache jwtTokenCache;
+
+    @MockBean
+    private UserImportService userImportService;
+
     @Autowired
     public UserControllerTest(MockMvc mockMvc) {
         this.mockMvc = mockMvc;
@@ -113,6 +129,7 @@ class UserControllerTest {
 
         verify(userService, times(1)).findById(1L);
         verify(userService, times(1)).delete(1L);
+        verify(jwtTokenCache, times(1)).invalidateUser("test@test.com");
     }
 
     @Test
@@ -125,6 +142,7 @@ class UserControllerTest {
 
         verify(userService, times(1)).findById(1L);
         verify(userService, never()).delete(anyLong());
+        verify(jwtTokenCache, never()).invalidateUser(anyString());
     }
 
     @Test
@@ -148,4 +166,70 @@ class UserControllerTest {
         verify(userService, never()).findById(anyLong());
         verify(userService, never()).delete(anyLong());
     }
+
+    @Test
+    void importUsers_AsAdminWithCsv_ShouldReturnReport() throws Exception {
+        when(userImportService.importCsv(any())).thenReturn(new UserImportResponse(1, 1, Collections.singletonList(
+                new UserImportResponse.RowError(2, "invalid", Collections.singletonList("email: must be a well-formed email address")))));
+
+        mockMvc.perform(post("/api/user/import")
+                        .with(user(principal(true)))
+                        .contentType("text/csv")
+                        .content("email,firstName,lastName,password\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0].row").value(2))
+                .andExpect(jsonPath("$.errors[0].email").value("invalid"));
+
+        verify(userImportService, times(1)).importCsv(any());
+        verify(userImportService, never()).importNdjson(any());
+    }
+
+    @Test
+    void importUsers_AsAdminWithNdjson_ShouldImportNdjson() throws Exception {
+        when(userImportService.importNdjson(any())).thenReturn(new UserImportResponse(0, 0, Collections.emptyList()));
+
+        mockMvc.perform(post("/api/user/import")
+                        .with(user(principal(true)))
+                        .contentType("application/x-ndjson")
+                        .content(""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(0));
+
+        verify(userImportService, times(1)).importNdjson(any());
+    }
+
+    @Test
+    void importUsers_AsNonAdmin_ShouldReturnUnauthorized() throws Exception {
+        mockMvc.perform(post("/api/user/import")
+                        .with(user(principal(false)))
+                        .contentType("text/csv")
+                        .content("email,firstName,lastName,password\n"))
+                .andExpect(status().isUnauthorized());
+
+        verify(userImportService, never()).importCsv(any());
+    }
+
+    @Test
+    void importUsers_WithJson_ShouldReturnUnsupportedMediaType() throws Exception {
+        mockMvc.perform(post("/api/user/import")
+                        .with(user(principal(true)))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        verify(userImportService, never()).importNdjson(any());
+    }
+
+    private UserDetailsImpl principal(boolean admin) {
+        return UserDetailsImpl.builder()
+                .id(1L)
+                .username("admin@test.com")
+                .firstName("Admin")
+                .lastName("Admin")
+                .admin(admin)
+                .password("password")
+                .build();
+    }
 }
@@ -0,0 +1,54 @@
+package com.openclassrooms.starterjwt.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ServiceUnavailableExceptionTest {
+
+    @Test
+    void exception_ShouldBeRuntimeException() {
+        ServiceUnavailableException exception = new ServiceUnavailableException();
+
+        assertThat(exception).isInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    void exception_ShouldHaveResponseStatusAnnotation() {
+        ResponseStatus annotation = ServiceUnavailableException.class.getAnnotation(ResponseStatus.class);
+
+        assertThat(annotation).isNotNull();
+        assertThat(annotation.value()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @Test
+    void exception_CanBeThrown() {
+        assertThatThrownBy(() -> {
+            throw new ServiceUnavailableException();
+        }).isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    @Test
+    void exception_ShouldBeCreatable() {
+        ServiceUnavailableException exception = new ServiceUnavailableException();
+
+        assertThat(exception).isNotNull();
+    }
+
+    @Test
+    void exception_ShouldHaveNoMessage() {
+        ServiceUnavailableException exception = new ServiceUnavailableException();
+
+        assertThat(exception.getMessage()).isNull();
+    }
+
+    @Test
+    void exception_ShouldExposeReasonInResponseStatus() {
+        ResponseStatus annotation = ServiceUnavailableException.class.getAnnotation(ResponseStatus.class);
+
+        assertThat(annotation.reason()).isEqualTo("Server busy, retry later");
+    }
+}
@@ -0,0 +1,54 @@
+package com.openclassrooms.starterjwt.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SessionFullExceptionTest {
+
+    @Test
+    void exception_ShouldBeRuntimeException() {
+        SessionFullException exception = new SessionFullException();
+
+        assertThat(exception).isInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    void exception_ShouldHaveResponseStatusAnnotation() {
+        ResponseStatus annotation = SessionFullException.class.getAnnotation(ResponseStatus.class);
+
+        assertThat(annotation).isNotNull();
+        assertThat(annotation.value()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void exception_CanBeThrown() {
+        assertThatThrownBy(() -> {
+            throw new SessionFullException();
+        }).isInstanceOf(SessionFullException.class);
+    }
+
+    @Test
+    void exception_ShouldBeCreatable() {
+        SessionFullException exception = new SessionFullException();
+
+        assertThat(exception).isNotNull();
+    }
+
+    @Test
+    void exception_ShouldHaveNoMessage() {
+        SessionFullException exception = new SessionFullException();
+
+        assertThat(exception.getMessage()).isNull();
+    }
+
+    @Test
+    void exception_ShouldExposeReasonInResponseStatus() {
+        ResponseStatus annotation = SessionFullException.class.getAnnotation(ResponseStatus.class);
+
+        assertThat(annotation.reason()).isEqualTo("Session is full");
+    }
+}
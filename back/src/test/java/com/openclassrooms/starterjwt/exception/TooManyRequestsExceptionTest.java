@@ -0,0 +1,54 @@
+package com.openclassrooms.starterjwt.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TooManyRequestsExceptionTest {
+
+    @Test
+    void exception_ShouldBeRuntimeException() {
+        TooManyRequestsException exception = new TooManyRequestsException();
+
+        assertThat(exception).isInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    void exception_ShouldHaveResponseStatusAnnotation() {
+        ResponseStatus annotation = TooManyRequestsException.class.getAnnotation(ResponseStatus.class);
+
+        assertThat(annotation).isNotNull();
+        assertThat(annotation.value()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @Test
+    void exception_CanBeThrown() {
+        assertThatThrownBy(() -> {
+            throw new TooManyRequestsException();
+        }).isInstanceOf(TooManyRequestsException.class);
+    }
+
+    @Test
+    void exception_ShouldBeCreatable() {
+        TooManyRequestsException exception = new TooManyRequestsException();
+
+        assertThat(exception).isNotNull();
+    }
+
+    @Test
+    void exception_ShouldHaveNoMessage() {
+        TooManyRequestsException exception = new TooManyRequestsException();
+
+        assertThat(exception.getMessage()).isNull();
+    }
+
+    @Test
+    void exception_ShouldExposeReasonInResponseStatus() {
+        ResponseStatus annotation = TooManyRequestsException.class.getAnnotation(ResponseStatus.class);
+
+        assertThat(annotation.reason()).isEqualTo("Too many attempts");
+    }
+}
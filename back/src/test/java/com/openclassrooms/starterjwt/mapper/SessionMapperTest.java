@@ -1,6 +1,7 @@
 package com.openclassrooms.starterjwt.mapper;
 
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.models.User;
@@ -21,6 +22,7 @@ import java.util.Date;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 @ActiveProfiles("test")
@@ -169,6 +171,45 @@ class SessionMapperTest {
         assertThat(session.getTeacher()).isNull();
     }
 
+    @Test
+    void toEntity_WithUnknownTeacherId_ShouldThrowBadRequest() {
+        SessionDto sessionDto = new SessionDto();
+        sessionDto.setName("Unknown Teacher Session");
+        sessionDto.setDescription("Session with an unknown teacher");
+        sessionDto.setDate(new Date());
+        sessionDto.setTeacher_id(teacher.getId() + 1000);
+
+        assertThatThrownBy(() -> sessionMapper.toEntity(sessionDto))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void toEntity_WithUnknownUserId_ShouldThrowBadRequest() {
+        SessionDto sessionDto = new SessionDto();
+        sessionDto.setName("Unknown User Session");
+        sessionDto.setDescription("Session with an unknown user");
+        sessionDto.setDate(new Date());
+        sessionDto.setTeacher_id(teacher.getId());
+        sessionDto.setUsers(Arrays.asList(user1.getId(), user2.getId() + 1000));
+
+        assertThatThrownBy(() -> sessionMapper.toEntity(sessionDto))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void toEntity_WithDuplicatedUserIds_ShouldMapEachUserOnce() {
+        SessionDto sessionDto = new SessionDto();
+        sessionDto.setName("Duplicated Users Session");
+        sessionDto.setDescription("Session with duplicated users");
+        sessionDto.setDate(new Date());
+        sessionDto.setTeacher_id(teacher.getId());
+        sessionDto.setUsers(Arrays.asList(user2.getId(), user1.getId(), user2.getId()));
+
+        Session session = sessionMapper.toEntity(sessionDto);
+
+        assertThat(session.getUsers()).extracting(User::getId).containsExactly(user2.getId(), user1.getId());
+    }
+
     @Test
     void toEntity_WithEmptyUsersList_ShouldMapEmptyList() {
         SessionDto sessionDto = new SessionDto();
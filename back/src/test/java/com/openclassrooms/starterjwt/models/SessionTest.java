@@ -221,12 +221,15 @@ class SessionTest {
         Teacher teacher = Teacher.builder().id(1L).build();
         List<User> users = new ArrayList<>();
         
-        Session session = new Session(1L, "Full Session", date, "Full description", teacher, users, now, now);
+        Session session = new Session(1L, "Full Session", date, "Full description", 20, true, 5, teacher, users, now, now);
 
         assertThat(session.getId()).isEqualTo(1L);
         assertThat(session.getName()).isEqualTo("Full Session");
         assertThat(session.getDate()).isEqualTo(date);
         assertThat(session.getDescription()).isEqualTo("Full description");
+        assertThat(session.getCapacity()).isEqualTo(20);
+        assertThat(session.isWaitlistEnabled()).isTrue();
+        assertThat(session.getSeatsTaken()).isEqualTo(5);
         assertThat(session.getTeacher()).isEqualTo(teacher);
         assertThat(session.getUsers()).isEmpty();
         assertThat(session.getCreatedAt()).isEqualTo(now);
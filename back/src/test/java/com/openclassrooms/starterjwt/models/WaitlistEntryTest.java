@@ -0,0 +1,37 @@
+package com.openclassrooms.starterjwt.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WaitlistEntryTest {
+
+    @Test
+    void builder_ShouldCreateEntryWithAllFields() {
+        LocalDateTime now = LocalDateTime.now();
+
+        WaitlistEntry entry = WaitlistEntry.builder()
+                .id(1L)
+                .sessionId(2L)
+                .userId(3L)
+                .createdAt(now)
+                .build();
+
+        assertThat(entry.getId()).isEqualTo(1L);
+        assertThat(entry.getSessionId()).isEqualTo(2L);
+        assertThat(entry.getUserId()).isEqualTo(3L);
+        assertThat(entry.getCreatedAt()).isEqualTo(now);
+    }
+
+    @Test
+    void equals_ShouldCompareById() {
+        WaitlistEntry entry = WaitlistEntry.builder().id(1L).sessionId(2L).userId(3L).build();
+        WaitlistEntry same = WaitlistEntry.builder().id(1L).sessionId(4L).userId(5L).build();
+        WaitlistEntry other = WaitlistEntry.builder().id(2L).sessionId(2L).userId(3L).build();
+
+        assertThat(entry).isEqualTo(same).hasSameHashCodeAs(same);
+        assertThat(entry).isNotEqualTo(other);
+    }
+}
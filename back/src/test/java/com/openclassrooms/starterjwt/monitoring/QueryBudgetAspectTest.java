@@ -0,0 +1,81 @@
+package com.openclassrooms.starterjwt.monitoring;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QueryBudgetAspectTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    static class Repository {
+        @QueryBudget(2)
+        public int run(int statements) {
+            for (int i = 0; i < statements; i++) {
+                StatementCounter.increment();
+            }
+            return statements;
+        }
+
+        @QueryBudget(0)
+        public void fail() {
+            StatementCounter.increment();
+            throw new IllegalArgumentException("original");
+        }
+
+        public void unbounded() {
+            StatementCounter.increment();
+            StatementCounter.increment();
+        }
+    }
+
+    private Repository proxy(boolean strict) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new Repository());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new QueryBudgetAspect(meterRegistry, strict));
+        return factory.getProxy();
+    }
+
+    @Test
+    void withinBudget_ShouldReturnResult() {
+        assertThat(proxy(true).run(2)).isEqualTo(2);
+        assertThat(meterRegistry.find(QueryBudgetAspect.EXCEEDED_METRIC).counter()).isNull();
+    }
+
+    @Test
+    void overBudget_WhenStrict_ShouldFail() {
+        Repository repository = proxy(true);
+
+        assertThatThrownBy(() -> repository.run(3))
+                .isInstanceOf(QueryBudgetExceededException.class)
+                .hasMessage("Repository.run executed 3 SQL statements, its budget is 2");
+    }
+
+    @Test
+    void overBudget_WhenLenient_ShouldCountAndReturnResult() {
+        Repository repository = proxy(false);
+
+        assertThat(repository.run(5)).isEqualTo(5);
+        repository.run(3);
+
+        assertThat(meterRegistry.get(QueryBudgetAspect.EXCEEDED_METRIC).tag("method", "Repository.run").counter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void failingCall_ShouldKeepItsException() {
+        Repository repository = proxy(true);
+
+        assertThatThrownBy(repository::fail).isInstanceOf(IllegalArgumentException.class).hasMessage("original");
+    }
+
+    @Test
+    void methodWithoutBudget_ShouldNotBeChecked() {
+        proxy(true).unbounded();
+
+        assertThat(meterRegistry.find(QueryBudgetAspect.EXCEEDED_METRIC).counter()).isNull();
+    }
+}
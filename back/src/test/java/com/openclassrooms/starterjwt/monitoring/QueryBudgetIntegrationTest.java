@@ -0,0 +1,233 @@
+package com.openclassrooms.starterjwt.monitoring;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import com.openclassrooms.starterjwt.services.SessionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Goes through the budgeted endpoints with several sessions, participants and teachers, so that a
+ * statement per row fails with a {@link QueryBudgetExceededException} (strict in the tests).
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QueryBudgetIntegrationTest {
+
+    private static final int SESSIONS = 5;
+    private static final int USERS = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private WaitlistRepository waitlistRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<Session> sessions = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < USERS; i++) {
+            users.add(userRepository.save(User.builder()
+                    .email("budget" + i + "@test.com")
+                    .lastName("Doe")
+                    .firstName("John")
+                    .password("password123")
+                    .admin(false)
+                    .build()));
+        }
+        for (int i = 0; i < SESSIONS; i++) {
+            Teacher teacher = teacherRepository.save(Teacher.builder().firstName("Jane").lastName("T" + i).build());
+            sessions.add(sessionService.create(Session.builder()
+                    .name("Budget Yoga " + i)
+                    .description("Several participants")
+                    .date(new Date())
+                    .teacher(teacher)
+                    .capacity(USERS - 1)
+                    .waitlistEnabled(true)
+                    .users(new ArrayList<>(users.subList(0, USERS - 1)))
+                    .build()));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        waitlistRepository.deleteAll();
+        sessionRepository.deleteAll();
+        teacherRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @WithMockUser
+    void sessionReads_ShouldStayWithinBudget() throws Exception {
+        mockMvc.perform(get("/api/session"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(SESSIONS))
+                .andExpect(jsonPath("$.content[0].users.length()").value(USERS - 1));
+        mockMvc.perform(get("/api/session").param("size", "3"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/session").param("page", "0").param("size", "3"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/session/{id}", sessions.get(0).getId()))
+                .andExpect(status().isOk());
+
+        assertThat(meterRegistry.get(RequestTimingFilter.STATEMENTS_METRIC)
+                .tag("method", "GET").tag("uri", "/api/session").summary().max()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    @WithMockUser
+    void waitlistRoundTrip_ShouldStayWithinBudget() throws Exception {
+        Long sessionId = sessions.get(0).getId();
+        Long waiting = users.get(USERS - 1).getId();
+        Long participant = users.get(0).getId();
+
+        mockMvc.perform(post("/api/session/{id}/participate/{userId}", sessionId, waiting))
+                .andExpect(status().isAccepted());
+        mockMvc.perform(get("/api/session/{id}/waitlist/{userId}", sessionId, waiting))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/session/{id}/participate/{userId}", sessionId, participant))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/session/{id}", sessionId))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser
+    void teacherReads_ShouldStayWithinBudget() throws Exception {
+        mockMvc.perform(get("/api/teacher"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(SESSIONS));
+        mockMvc.perform(get("/api/teacher/{id}", sessions.get(0).getTeacher().getId()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser(username = "budget3@test.com")
+    void userEndpoints_ShouldStayWithinBudget() throws Exception {
+        Long id = users.get(USERS - 1).getId();
+
+        mockMvc.perform(get("/api/user/{id}", id))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/user/{id}", id))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void registerThenLogin_ShouldStayWithinBudget() throws Exception {
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"budget-new@test.com\",\"firstName\":\"New\",\"lastName\":\"User\","
+                                + "\"password\":\"password123\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"budget-new@test.com\",\"password\":\"password123\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void login_ShouldRunASingleQuery() throws Exception {
+        userRepository.save(User.builder()
+                .email("budget-admin@test.com")
+                .lastName("Admin")
+                .firstName("Jane")
+                .password(passwordEncoder.encode("password123"))
+                .admin(true)
+                .build());
+
+        long before = StatementCounter.count();
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"budget-admin@test.com\",\"password\":\"password123\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.admin").value(true));
+
+        assertThat(StatementCounter.count() - before).isEqualTo(1);
+    }
+
+    @Test
+    void register_WithTakenEmail_ShouldReturnBadRequestWithinBudget() throws Exception {
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"budget0@test.com\",\"firstName\":\"New\",\"lastName\":\"User\","
+                                + "\"password\":\"password123\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Error: Email is already taken!"));
+
+        assertThat(userRepository.count()).isEqualTo(USERS);
+    }
+
+    @Test
+    void registerBulk_ShouldInsertWithOneBatchWithinBudget() throws Exception {
+        UserDetailsImpl admin = UserDetailsImpl.builder()
+                .id(users.get(0).getId())
+                .username("budget0@test.com")
+                .firstName("John")
+                .lastName("Doe")
+                .admin(true)
+                .password("password123")
+                .build();
+
+        mockMvc.perform(post("/api/auth/register/bulk")
+                        .with(user(admin))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"users\":["
+                                + "{\"email\":\"bulk0@test.com\",\"firstName\":\"New\",\"lastName\":\"User\",\"password\":\"password123\"},"
+                                + "{\"email\":\"budget1@test.com\",\"firstName\":\"New\",\"lastName\":\"User\",\"password\":\"password123\"},"
+                                + "{\"email\":\"bulk1@test.com\",\"firstName\":\"New\",\"lastName\":\"User\",\"password\":\"password123\"},"
+                                + "{\"email\":\"bulk2@test.com\",\"firstName\":\"New\",\"lastName\":\"User\",\"password\":\"password123\"}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.registered").value(3))
+                .andExpect(jsonPath("$.alreadyTaken[0]").value("budget1@test.com"));
+
+        assertThat(userRepository.count()).isEqualTo(USERS + 3);
+    }
+}
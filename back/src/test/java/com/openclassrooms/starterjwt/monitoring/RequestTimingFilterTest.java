@@ -0,0 +1,125 @@
+package com.openclassrooms.starterjwt.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(OutputCaptureExtension.class)
+class RequestTimingFilterTest {
+
+    @Test
+    void doFilter_ShouldSendServerTimingBeforeTheBodyIsCommitted() throws ServletException, IOException {
+        RequestTimingFilter filter = new RequestTimingFilter(new SimpleMeterRegistry(), 500, true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/session"), response, (req, res) -> {
+            RequestTimings.recordStatement(2_000_000);
+            res.getOutputStream().write("[]".getBytes(StandardCharsets.UTF_8));
+            res.flushBuffer();
+        });
+
+        assertThat(response.isCommitted()).isTrue();
+        assertThat(response.getHeader(RequestTimingFilter.SERVER_TIMING_HEADER))
+                .startsWith("token;dur=")
+                .contains("sql;desc=\"1 statements\";dur=2.00")
+                .contains("total;dur=");
+        assertThat(RequestTimings.current()).isNull();
+    }
+
+    @Test
+    void doFilter_WithHandler_ShouldRecordStatementsPerPattern() throws ServletException, IOException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RequestTimingFilter filter = new RequestTimingFilter(meterRegistry, 500, true);
+
+        for (int statements = 1; statements <= 3; statements++) {
+            int count = statements;
+            filter.doFilter(new MockHttpServletRequest("GET", "/api/session/" + count), new MockHttpServletResponse(),
+                    (req, res) -> {
+                        req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/session/{id}");
+                        for (int i = 0; i < count; i++) {
+                            RequestTimings.recordStatement(1000);
+                        }
+                    });
+        }
+        filter.doFilter(new MockHttpServletRequest("GET", "/unmapped"), new MockHttpServletResponse(), (req, res) -> { });
+
+        DistributionSummary summary = meterRegistry.get(RequestTimingFilter.STATEMENTS_METRIC)
+                .tag("method", "GET").tag("uri", "/api/session/{id}").summary();
+        assertThat(summary.count()).isEqualTo(3);
+        assertThat(summary.totalAmount()).isEqualTo(6);
+        assertThat(summary.max()).isEqualTo(3);
+        assertThat(meterRegistry.find(RequestTimingFilter.STATEMENTS_METRIC).summaries()).hasSize(1);
+    }
+
+    @Test
+    void doFilter_WithoutBody_ShouldSendServerTimingAtTheEnd() throws ServletException, IOException {
+        RequestTimingFilter filter = new RequestTimingFilter(new SimpleMeterRegistry(), 500, true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("DELETE", "/api/session/1"), response, (req, res) -> { });
+
+        assertThat(response.getHeader(RequestTimingFilter.SERVER_TIMING_HEADER)).contains("total;dur=");
+    }
+
+    @Test
+    void doFilter_WithHeaderDisabled_ShouldNotSendServerTiming() throws ServletException, IOException {
+        RequestTimingFilter filter = new RequestTimingFilter(new SimpleMeterRegistry(), 500, false);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/session"), response, (req, res) -> { });
+
+        assertThat(response.getHeader(RequestTimingFilter.SERVER_TIMING_HEADER)).isNull();
+    }
+
+    @Test
+    void doFilter_AboveThreshold_ShouldLogTheBreakdown(CapturedOutput output) throws ServletException, IOException {
+        RequestTimingFilter filter = new RequestTimingFilter(new SimpleMeterRegistry(), 0, true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/session/1"), response, (req, res) -> {
+            RequestTimings.recordStatement(1_000_000);
+        });
+
+        assertThat(output).contains("Slow request: method=GET uri=/api/session/1")
+                .contains("sql_ms=1.00 sql_statements=1");
+    }
+
+    @Test
+    void doFilter_BelowThreshold_ShouldNotLog(CapturedOutput output) throws ServletException, IOException {
+        RequestTimingFilter filter = new RequestTimingFilter(new SimpleMeterRegistry(), 60000, true);
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/teacher"), new MockHttpServletResponse(),
+                (req, res) -> { });
+
+        assertThat(output).doesNotContain("Slow request");
+    }
+
+    @Test
+    void doFilter_WhenChainFails_ShouldStillCloseTheTimings() {
+        RequestTimingFilter filter = new RequestTimingFilter(new SimpleMeterRegistry(), 500, true);
+        FilterChain failing = (req, res) -> {
+            throw new ServletException("boom");
+        };
+
+        try {
+            filter.doFilter(new MockHttpServletRequest("GET", "/api/session"), new MockHttpServletResponse(), failing);
+        } catch (ServletException | IOException e) {
+            assertThat(e).hasMessage("boom");
+        }
+
+        assertThat(RequestTimings.current()).isNull();
+    }
+}
@@ -0,0 +1,74 @@
+package com.openclassrooms.starterjwt.monitoring;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RequestTimingIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @AfterEach
+    void tearDown() {
+        sessionRepository.deleteAll();
+    }
+
+    @Test
+    @WithMockUser
+    void getSession_ShouldReportSqlAndSerialization() throws Exception {
+        Session session = sessionRepository.save(Session.builder()
+                .name("Timed Yoga")
+                .description("Observed session")
+                .date(new Date())
+                .build());
+
+        MvcResult result = mockMvc.perform(get("/api/session/{id}", session.getId()))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String serverTiming = result.getResponse().getHeader(RequestTimingFilter.SERVER_TIMING_HEADER);
+        assertThat(serverTiming).isNotNull().contains("controller;dur=").contains("total;dur=");
+        assertThat(serverTiming).doesNotContain("sql;desc=\"0 statements\"");
+        assertThat(parseDuration(serverTiming, "serialization")).isPositive();
+    }
+
+    @Test
+    void unauthenticated_ShouldStillReportTimings() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/session"))
+                .andExpect(status().isUnauthorized())
+                .andReturn();
+
+        assertThat(result.getResponse().getHeader(RequestTimingFilter.SERVER_TIMING_HEADER))
+                .startsWith("token;dur=");
+    }
+
+    private static double parseDuration(String serverTiming, String metric) {
+        for (String entry : serverTiming.split(", ")) {
+            if (entry.startsWith(metric + ";")) {
+                return Double.parseDouble(entry.substring(entry.lastIndexOf("dur=") + 4));
+            }
+        }
+        throw new AssertionError(metric + " missing from " + serverTiming);
+    }
+}
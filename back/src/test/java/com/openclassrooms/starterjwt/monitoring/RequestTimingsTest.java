@@ -0,0 +1,105 @@
+package com.openclassrooms.starterjwt.monitoring;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestTimingsTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestTimings.clear();
+    }
+
+    @Test
+    void phases_WithoutRequest_ShouldBeNoOp() {
+        RequestTimings.begin(RequestTimings.Phase.TOKEN);
+        RequestTimings.end(RequestTimings.Phase.TOKEN);
+        RequestTimings.recordStatement(1000);
+
+        assertThat(RequestTimings.current()).isNull();
+    }
+
+    @Test
+    void phases_ShouldAccumulate() throws InterruptedException {
+        RequestTimings timings = RequestTimings.start();
+
+        RequestTimings.begin(RequestTimings.Phase.TOKEN);
+        Thread.sleep(2);
+        RequestTimings.end(RequestTimings.Phase.TOKEN);
+        RequestTimings.begin(RequestTimings.Phase.TOKEN);
+        Thread.sleep(2);
+        RequestTimings.end(RequestTimings.Phase.TOKEN);
+        RequestTimings.recordStatement(TimeUnit.MILLISECONDS.toNanos(2));
+        RequestTimings.recordStatement(TimeUnit.MILLISECONDS.toNanos(1));
+
+        assertThat(timings.nanos(RequestTimings.Phase.TOKEN)).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(4));
+        assertThat(timings.nanos(RequestTimings.Phase.SQL)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(3));
+        assertThat(timings.statements()).isEqualTo(2);
+        assertThat(timings.nanos(RequestTimings.Phase.PRINCIPAL)).isZero();
+    }
+
+    @Test
+    void end_WithoutBegin_ShouldBeIgnored() {
+        RequestTimings timings = RequestTimings.start();
+
+        RequestTimings.end(RequestTimings.Phase.PRINCIPAL);
+
+        assertThat(timings.nanos(RequestTimings.Phase.PRINCIPAL)).isZero();
+    }
+
+    @Test
+    void openPhase_ShouldCountUpToNow() throws InterruptedException {
+        RequestTimings timings = RequestTimings.start();
+
+        RequestTimings.begin(RequestTimings.Phase.SERIALIZATION);
+        Thread.sleep(5);
+
+        assertThat(timings.nanos(RequestTimings.Phase.SERIALIZATION)).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(5));
+    }
+
+    @Test
+    void controller_ShouldExcludeSerialization() throws InterruptedException {
+        RequestTimings timings = RequestTimings.start();
+        long before = System.nanoTime();
+
+        RequestTimings.begin(RequestTimings.Phase.CONTROLLER);
+        Thread.sleep(5);
+        RequestTimings.begin(RequestTimings.Phase.SERIALIZATION);
+        Thread.sleep(20);
+        RequestTimings.end(RequestTimings.Phase.SERIALIZATION);
+        RequestTimings.end(RequestTimings.Phase.CONTROLLER);
+        long wall = System.nanoTime() - before;
+
+        long serialization = timings.nanos(RequestTimings.Phase.SERIALIZATION);
+        assertThat(serialization).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(20));
+        assertThat(timings.nanos(RequestTimings.Phase.CONTROLLER))
+                .isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(5))
+                .isLessThanOrEqualTo(wall - serialization);
+    }
+
+    @Test
+    void controller_WhileSerializing_ShouldExcludeSerializationSoFar() throws InterruptedException {
+        RequestTimings timings = RequestTimings.start();
+
+        RequestTimings.begin(RequestTimings.Phase.CONTROLLER);
+        RequestTimings.begin(RequestTimings.Phase.SERIALIZATION);
+        Thread.sleep(20);
+
+        assertThat(timings.nanos(RequestTimings.Phase.CONTROLLER)).isLessThan(TimeUnit.MILLISECONDS.toNanos(20));
+        assertThat(timings.nanos(RequestTimings.Phase.SERIALIZATION)).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    @Test
+    void toServerTiming_ShouldListEveryPhaseThenTotal() {
+        RequestTimings timings = RequestTimings.start();
+        RequestTimings.recordStatement(TimeUnit.MICROSECONDS.toNanos(1500));
+
+        assertThat(timings.toServerTiming())
+                .matches("token;dur=\\d+\\.\\d{2}, principal;dur=\\d+\\.\\d{2}, controller;dur=\\d+\\.\\d{2}, "
+                        + "sql;desc=\"1 statements\";dur=1\\.50, serialization;dur=\\d+\\.\\d{2}, total;dur=\\d+\\.\\d{2}");
+    }
+}
@@ -0,0 +1,100 @@
+package com.openclassrooms.starterjwt.monitoring;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SamplingTurboFilterTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    private Logger sqlLogger;
+    private Logger otherLogger;
+    private SamplingTurboFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        LoggerContext context = new LoggerContext();
+        sqlLogger = context.getLogger("org.hibernate.SQL");
+        sqlLogger.setLevel(Level.DEBUG);
+        otherLogger = context.getLogger("com.openclassrooms.starterjwt.Other");
+        otherLogger.setLevel(Level.DEBUG);
+
+        filter = new SamplingTurboFilter(now::get);
+        filter.setLoggerPrefix("org.hibernate.SQL");
+        filter.start();
+    }
+
+    @Test
+    void decide_ShouldKeepOneEventInSampleRate() {
+        filter.setSampleRate(10);
+
+        int kept = 0;
+        for (int i = 0; i < 100; i++) {
+            if (decide(sqlLogger, Level.DEBUG) == FilterReply.NEUTRAL) {
+                kept++;
+            }
+        }
+
+        assertThat(kept).isEqualTo(10);
+    }
+
+    @Test
+    void decide_ShouldCapKeptEventsPerSecond() {
+        filter.setMaxPerSecond(3);
+
+        assertThat(decide(sqlLogger, Level.DEBUG)).isEqualTo(FilterReply.NEUTRAL);
+        assertThat(decide(sqlLogger, Level.DEBUG)).isEqualTo(FilterReply.NEUTRAL);
+        assertThat(decide(sqlLogger, Level.DEBUG)).isEqualTo(FilterReply.NEUTRAL);
+        assertThat(decide(sqlLogger, Level.DEBUG)).isEqualTo(FilterReply.DENY);
+
+        now.addAndGet(1000);
+
+        assertThat(decide(sqlLogger, Level.DEBUG)).isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    @Test
+    void decide_OtherLogger_ShouldNotBeSampled() {
+        filter.setSampleRate(1000);
+        filter.setMaxPerSecond(0);
+
+        assertThat(decide(otherLogger, Level.DEBUG)).isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    @Test
+    void decide_LevelCheck_ShouldNotCountTowardsSample() {
+        filter.setSampleRate(2);
+
+        assertThat(filter.decide(null, sqlLogger, Level.DEBUG, null, null, null)).isEqualTo(FilterReply.NEUTRAL);
+        assertThat(decide(sqlLogger, Level.DEBUG)).isEqualTo(FilterReply.DENY);
+        assertThat(decide(sqlLogger, Level.DEBUG)).isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    @Test
+    void decide_DisabledLevel_ShouldNotCountTowardsSample() {
+        filter.setSampleRate(2);
+
+        assertThat(decide(sqlLogger, Level.TRACE)).isEqualTo(FilterReply.NEUTRAL);
+        assertThat(decide(sqlLogger, Level.DEBUG)).isEqualTo(FilterReply.DENY);
+        assertThat(decide(sqlLogger, Level.DEBUG)).isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    @Test
+    void decide_Stopped_ShouldBeNeutral() {
+        filter.setMaxPerSecond(0);
+        filter.stop();
+
+        assertThat(decide(sqlLogger, Level.DEBUG)).isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    private FilterReply decide(Logger logger, Level level) {
+        return filter.decide(null, logger, level, "select 1", null, null);
+    }
+}
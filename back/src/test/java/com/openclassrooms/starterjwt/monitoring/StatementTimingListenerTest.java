@@ -0,0 +1,39 @@
+package com.openclassrooms.starterjwt.monitoring;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatementTimingListenerTest {
+
+    private final StatementTimingListener listener = new StatementTimingListener();
+
+    @AfterEach
+    void tearDown() {
+        RequestTimings.clear();
+    }
+
+    @Test
+    void statementsAndBatches_ShouldBeCountedInTheCurrentRequest() {
+        RequestTimings timings = RequestTimings.start();
+
+        listener.jdbcExecuteStatementStart();
+        listener.jdbcExecuteStatementEnd();
+        listener.jdbcExecuteStatementStart();
+        listener.jdbcExecuteStatementEnd();
+        listener.jdbcExecuteBatchStart();
+        listener.jdbcExecuteBatchEnd();
+
+        assertThat(timings.statements()).isEqualTo(3);
+        assertThat(timings.nanos(RequestTimings.Phase.SQL)).isPositive();
+    }
+
+    @Test
+    void statements_OutsideRequest_ShouldBeIgnored() {
+        listener.jdbcExecuteStatementStart();
+        listener.jdbcExecuteStatementEnd();
+
+        assertThat(RequestTimings.current()).isNull();
+    }
+}
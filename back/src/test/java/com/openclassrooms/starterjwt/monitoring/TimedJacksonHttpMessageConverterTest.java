@@ -0,0 +1,33 @@
+package com.openclassrooms.starterjwt.monitoring;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimedJacksonHttpMessageConverterTest {
+
+    private final TimedJacksonHttpMessageConverter converter = new TimedJacksonHttpMessageConverter(new ObjectMapper());
+
+    @AfterEach
+    void tearDown() {
+        RequestTimings.clear();
+    }
+
+    @Test
+    void write_ShouldRecordSerialization() throws IOException {
+        RequestTimings timings = RequestTimings.start();
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+
+        converter.write(Collections.singletonMap("name", "Yoga"), MediaType.APPLICATION_JSON, outputMessage);
+
+        assertThat(outputMessage.getBodyAsString()).isEqualTo("{\"name\":\"Yoga\"}");
+        assertThat(timings.nanos(RequestTimings.Phase.SERIALIZATION)).isPositive();
+    }
+}
@@ -0,0 +1,86 @@
+package com.openclassrooms.starterjwt.payload.request;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("BulkSignupRequest Tests")
+class BulkSignupRequestTest {
+
+    private Validator validator;
+
+    @BeforeEach
+    void setUp() {
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+    }
+
+    private SignupRequest signupRequest(String email) {
+        SignupRequest request = new SignupRequest();
+        request.setEmail(email);
+        request.setFirstName("John");
+        request.setLastName("Doe");
+        request.setPassword("password123");
+        return request;
+    }
+
+    @Test
+    @DisplayName("Valid bulk request should pass validation")
+    void validBulkRequest_ShouldPassValidation() {
+        BulkSignupRequest request = new BulkSignupRequest();
+        request.setUsers(Collections.singletonList(signupRequest("test@test.com")));
+
+        Set<ConstraintViolation<BulkSignupRequest>> violations = validator.validate(request);
+
+        assertThat(violations).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Users cannot be empty")
+    void users_CannotBeEmpty() {
+        BulkSignupRequest request = new BulkSignupRequest();
+        request.setUsers(Collections.emptyList());
+
+        Set<ConstraintViolation<BulkSignupRequest>> violations = validator.validate(request);
+
+        assertThat(violations).hasSize(1);
+        assertThat(violations.iterator().next().getPropertyPath().toString()).isEqualTo("users");
+    }
+
+    @Test
+    @DisplayName("Users cannot exceed 100 entries")
+    void users_CannotExceedMaxSize() {
+        List<SignupRequest> users = new ArrayList<>();
+        for (int i = 0; i < 101; i++) {
+            users.add(signupRequest("user" + i + "@test.com"));
+        }
+        BulkSignupRequest request = new BulkSignupRequest();
+        request.setUsers(users);
+
+        Set<ConstraintViolation<BulkSignupRequest>> violations = validator.validate(request);
+
+        assertThat(violations).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Each user should be validated")
+    void users_ShouldBeValidated() {
+        SignupRequest invalid = signupRequest("not-an-email");
+        BulkSignupRequest request = new BulkSignupRequest();
+        request.setUsers(Collections.singletonList(invalid));
+
+        Set<ConstraintViolation<BulkSignupRequest>> violations = validator.validate(request);
+
+        assertThat(violations).hasSize(1);
+        assertThat(violations.iterator().next().getPropertyPath().toString()).startsWith("users[0]");
+    }
+}
@@ -0,0 +1,84 @@
+package com.openclassrooms.starterjwt.security;
+
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "oc.app.bcrypt.strength=5")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class WebSecurityConfigTest {
+
+    private final MockMvc mockMvc;
+    private final PasswordEncoder passwordEncoder;
+    private final UserRepository userRepository;
+
+    @Autowired
+    public WebSecurityConfigTest(MockMvc mockMvc, PasswordEncoder passwordEncoder, UserRepository userRepository) {
+        this.mockMvc = mockMvc;
+        this.passwordEncoder = passwordEncoder;
+        this.userRepository = userRepository;
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.findByEmail("upgrade@test.com").ifPresent(userRepository::delete);
+    }
+
+    @Test
+    void passwordEncoder_ShouldEncodeWithConfiguredCost() {
+        String encoded = passwordEncoder.encode("password123");
+
+        assertThat(encoded).startsWith("{bcrypt}$2a$05$");
+        assertThat(passwordEncoder.matches("password123", encoded)).isTrue();
+        assertThat(passwordEncoder.upgradeEncoding(encoded)).isFalse();
+    }
+
+    @Test
+    void passwordEncoder_ShouldMatchUnprefixedHashesAndFlagThemForUpgrade() {
+        String legacy = new BCryptPasswordEncoder(4).encode("password123");
+
+        assertThat(passwordEncoder.matches("password123", legacy)).isTrue();
+        assertThat(passwordEncoder.upgradeEncoding(legacy)).isTrue();
+        assertThat(passwordEncoder.upgradeEncoding("{bcrypt}" + legacy)).isTrue();
+    }
+
+    @Test
+    void login_WithOutdatedHash_ShouldStoreUpgradedHash() throws Exception {
+        userRepository.save(User.builder()
+                .email("upgrade@test.com")
+                .firstName("Old")
+                .lastName("Hash")
+                .password(new BCryptPasswordEncoder(4).encode("password123"))
+                .admin(false)
+                .build());
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"upgrade@test.com\",\"password\":\"password123\"}"))
+                .andExpect(status().isOk());
+
+        String stored = userRepository.findByEmail("upgrade@test.com").get().getPassword();
+        assertThat(stored).startsWith("{bcrypt}$2a$05$");
+        assertThat(passwordEncoder.matches("password123", stored)).isTrue();
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"upgrade@test.com\",\"password\":\"password123\"}"))
+                .andExpect(status().isOk());
+        assertThat(userRepository.findByEmail("upgrade@test.com").get().getPassword()).isEqualTo(stored);
+    }
+}
@@ -0,0 +1,130 @@
+package com.openclassrooms.starterjwt.security.crypto;
+
+import com.openclassrooms.starterjwt.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IsolatedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    private IsolatedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+        if (encoder != null) {
+            encoder.shutdown();
+        }
+    }
+
+    @Test
+    void encodeAndMatches_ShouldDelegate() {
+        encoder = new IsolatedPasswordEncoder(new BCryptPasswordEncoder(4), 1, 1, 5000, meterRegistry);
+
+        String encoded = encoder.encode("password");
+
+        assertThat(encoder.matches("password", encoded)).isTrue();
+        assertThat(encoder.matches("other", encoded)).isFalse();
+        assertThat(meterRegistry.get("executor").tag("name", IsolatedPasswordEncoder.EXECUTOR_NAME)
+                .timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void encode_ShouldRunOffTheCallerThread() {
+        Thread caller = Thread.currentThread();
+        encoder = new IsolatedPasswordEncoder(new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return Thread.currentThread() == caller ? "caller" : Thread.currentThread().getName();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return false;
+            }
+        }, 1, 1, 5000, meterRegistry);
+
+        assertThat(encoder.encode("password")).startsWith("password-hashing-");
+    }
+
+    @Test
+    void matches_QueueFull_ShouldRejectFast() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        encoder = new IsolatedPasswordEncoder(blockingEncoder(started), 1, 1, 5000, meterRegistry);
+
+        callers.submit(() -> encoder.matches("running", "x"));
+        started.await(5, TimeUnit.SECONDS);
+        callers.submit(() -> encoder.matches("queued", "x"));
+        waitForQueued(1);
+
+        assertThatThrownBy(() -> encoder.matches("rejected", "x")).isInstanceOf(ServiceUnavailableException.class);
+        assertThat(meterRegistry.get(IsolatedPasswordEncoder.REJECTED_METRIC).tag("reason", "queue_full")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void matches_WaitingTooLong_ShouldTimeOut() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        encoder = new IsolatedPasswordEncoder(blockingEncoder(started), 1, 1, 50, meterRegistry);
+
+        callers.submit(() -> encoder.matches("running", "x"));
+        started.await(5, TimeUnit.SECONDS);
+
+        assertThatThrownBy(() -> encoder.matches("waiting", "x")).isInstanceOf(ServiceUnavailableException.class);
+        // the running call times out as well
+        assertThat(meterRegistry.get(IsolatedPasswordEncoder.REJECTED_METRIC).tag("reason", "timeout")
+                .counter().count()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void encode_DelegateFailure_ShouldPropagate() {
+        encoder = new IsolatedPasswordEncoder(new BCryptPasswordEncoder(4), 1, 1, 5000, meterRegistry);
+
+        assertThatThrownBy(() -> encoder.encode(null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private PasswordEncoder blockingEncoder(CountDownLatch started) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        };
+    }
+
+    private void waitForQueued(int expected) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            if (meterRegistry.get("executor.queued").tag("name", IsolatedPasswordEncoder.EXECUTOR_NAME)
+                    .gauge().value() >= expected) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.openclassrooms.starterjwt.security.crypto;
+
+import com.openclassrooms.starterjwt.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginThrottleTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private LoginThrottle loginThrottle;
+
+    @BeforeEach
+    void setUp() {
+        loginThrottle = new LoginThrottle(3, 3, 5, 60, 1000, meterRegistry, now::get);
+    }
+
+    @Test
+    void checkLogin_OverEmailCapacity_ShouldThrowAndCount() {
+        for (int i = 0; i < 3; i++) {
+            loginThrottle.checkLogin("user@test.com", "10.0.0." + i);
+        }
+
+        assertThatThrownBy(() -> loginThrottle.checkLogin("user@test.com", "10.0.0.9"))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThat(meterRegistry.get(LoginThrottle.THROTTLED_METRIC).tag("key", "email").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void checkLogin_ShouldIgnoreEmailCase() {
+        loginThrottle.checkLogin("User@Test.com", "10.0.0.1");
+        loginThrottle.checkLogin("user@test.com ", "10.0.0.2");
+        loginThrottle.checkLogin("USER@TEST.COM", "10.0.0.3");
+
+        assertThatThrownBy(() -> loginThrottle.checkLogin("user@test.com", "10.0.0.4"))
+                .isInstanceOf(TooManyRequestsException.class);
+    }
+
+    @Test
+    void checkLogin_OtherEmail_ShouldHaveItsOwnBucket() {
+        for (int i = 0; i < 3; i++) {
+            loginThrottle.checkLogin("user@test.com", "10.0.0." + i);
+        }
+
+        assertThatCode(() -> loginThrottle.checkLogin("other@test.com", "10.0.0.9")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void checkLogin_AfterRefill_ShouldAllowAgain() {
+        for (int i = 0; i < 3; i++) {
+            loginThrottle.checkLogin("user@test.com", "10.0.0." + i);
+        }
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(20));
+
+        assertThatCode(() -> loginThrottle.checkLogin("user@test.com", "10.0.0.9")).doesNotThrowAnyException();
+        assertThatThrownBy(() -> loginThrottle.checkLogin("user@test.com", "10.0.0.9"))
+                .isInstanceOf(TooManyRequestsException.class);
+    }
+
+    @Test
+    void loginSucceeded_ShouldGiveTheAttemptBack() {
+        for (int i = 0; i < 10; i++) {
+            loginThrottle.checkLogin("user@test.com", "10.0.0." + i);
+            loginThrottle.loginSucceeded("User@Test.com");
+        }
+
+        assertThatCode(() -> loginThrottle.checkLogin("user@test.com", "10.0.0.9")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void loginSucceeded_ShouldNotRefundAboveCapacity() {
+        loginThrottle.loginSucceeded("user@test.com");
+        loginThrottle.checkLogin("user@test.com", "10.0.0.1");
+        loginThrottle.loginSucceeded("user@test.com");
+        loginThrottle.loginSucceeded("user@test.com");
+        for (int i = 0; i < 3; i++) {
+            loginThrottle.checkLogin("user@test.com", "10.0.0.2");
+        }
+
+        assertThatThrownBy(() -> loginThrottle.checkLogin("user@test.com", "10.0.0.3"))
+                .isInstanceOf(TooManyRequestsException.class);
+    }
+
+    @Test
+    void checkLogin_OverAddressCapacity_ShouldNotConsumeEmailAttempts() {
+        for (int i = 0; i < 5; i++) {
+            loginThrottle.checkAddress("10.0.0.1");
+        }
+
+        assertThatThrownBy(() -> loginThrottle.checkLogin("user@test.com", "10.0.0.1"))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThat(meterRegistry.get(LoginThrottle.THROTTLED_METRIC).tag("key", "address").counter().count()).isEqualTo(1);
+        for (int i = 0; i < 3; i++) {
+            loginThrottle.checkLogin("user@test.com", "10.0.0.2");
+        }
+    }
+
+    @Test
+    void checkAddress_ShouldNotRefillAboveCapacity() {
+        now.addAndGet(TimeUnit.HOURS.toNanos(1));
+        for (int i = 0; i < 5; i++) {
+            loginThrottle.checkAddress("10.0.0.1");
+        }
+
+        assertThatThrownBy(() -> loginThrottle.checkAddress("10.0.0.1"))
+                .isInstanceOf(TooManyRequestsException.class);
+    }
+}
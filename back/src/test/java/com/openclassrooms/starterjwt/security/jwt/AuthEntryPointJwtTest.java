@@ -1,24 +1,35 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InsufficientAuthenticationException;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
-@ExtendWith(MockitoExtension.class)
+@ExtendWith({MockitoExtension.class, OutputCaptureExtension.class})
 class AuthEntryPointJwtTest {
 
     @InjectMocks
@@ -36,6 +47,11 @@ class AuthEntryPointJwtTest {
     @Mock
     private ServletOutputStream outputStream;
 
+    @BeforeEach
+    void setUp() {
+        authEntryPointJwt.init();
+    }
+
     @Test
     void commence_ShouldSetUnauthorizedResponse() throws Exception {
         when(authException.getMessage()).thenReturn("Unauthorized access");
@@ -85,4 +101,66 @@ class AuthEntryPointJwtTest {
         verify(response).setContentType(MediaType.APPLICATION_JSON_VALUE);
         verify(request).getServletPath();
     }
+
+    @Test
+    void commence_ShouldWriteJsonBody() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/session");
+        request.setServletPath("/api/session");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        authEntryPointJwt.commence(request, response, new InsufficientAuthenticationException("Full \"authentication\" is required"));
+
+        Map<String, Object> body = new ObjectMapper().readValue(response.getContentAsByteArray(), Map.class);
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_UNAUTHORIZED);
+        assertThat(body).containsEntry("status", 401)
+                .containsEntry("error", "Unauthorized")
+                .containsEntry("message", "Full \"authentication\" is required")
+                .containsEntry("path", "/api/session");
+    }
+
+    @Test
+    void commence_ShouldCountRejectionsByReason() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AuthEntryPointJwt entryPoint = new AuthEntryPointJwt();
+        ReflectionTestUtils.setField(entryPoint, "meterRegistry", meterRegistry);
+        entryPoint.init();
+
+        entryPoint.commence(new MockHttpServletRequest(), new MockHttpServletResponse(), new BadCredentialsException("Bad credentials"));
+        entryPoint.commence(new MockHttpServletRequest(), new MockHttpServletResponse(), new BadCredentialsException("Bad credentials"));
+        entryPoint.commence(new MockHttpServletRequest(), new MockHttpServletResponse(), new InsufficientAuthenticationException("Missing"));
+
+        assertThat(meterRegistry.get(AuthEntryPointJwt.UNAUTHORIZED_METRIC).tag("reason", "BadCredentialsException").counter().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get(AuthEntryPointJwt.UNAUTHORIZED_METRIC).tag("reason", "InsufficientAuthenticationException").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void commence_ShouldLogOneSummaryPerInterval(CapturedOutput output) throws Exception {
+        AuthEntryPointJwt entryPoint = new AuthEntryPointJwt();
+        ReflectionTestUtils.setField(entryPoint, "meterRegistry", new SimpleMeterRegistry());
+        entryPoint.init();
+
+        for (int i = 0; i < 5; i++) {
+            entryPoint.commence(new MockHttpServletRequest(), new MockHttpServletResponse(), new BadCredentialsException("Bad credentials"));
+        }
+
+        assertThat(output.getOut().split("Unauthorized requests: ", -1)).hasSize(2);
+        assertThat(output.getOut()).contains("Unauthorized requests: count=1 ");
+    }
+
+    @Test
+    void commence_IntervalElapsed_ShouldLogSuppressedCount(CapturedOutput output) throws Exception {
+        AuthEntryPointJwt entryPoint = new AuthEntryPointJwt();
+        ReflectionTestUtils.setField(entryPoint, "meterRegistry", new SimpleMeterRegistry());
+        entryPoint.init();
+
+        for (int i = 0; i < 4; i++) {
+            entryPoint.commence(new MockHttpServletRequest(), new MockHttpServletResponse(), new BadCredentialsException("Bad credentials"));
+        }
+        ((AtomicLong) ReflectionTestUtils.getField(entryPoint, "nextLogMillis")).set(0);
+        entryPoint.commence(new MockHttpServletRequest(), new MockHttpServletResponse(), new BadCredentialsException("Bad credentials"));
+
+        assertThat(output.getOut()).contains("Unauthorized requests: count=4 ");
+    }
 }
@@ -1,7 +1,9 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
+import com.openclassrooms.starterjwt.monitoring.RequestTimingFilter;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
-import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+import com.openclassrooms.starterjwt.security.services.CachingUserDetailsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,10 +13,13 @@ import org.springframework.mock.web.MockFilterChain;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import javax.servlet.ServletException;
 import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -26,7 +31,7 @@ class AuthTokenFilterTest {
     private JwtUtils jwtUtils;
 
     @Mock
-    private UserDetailsServiceImpl userDetailsService;
+    private CachingUserDetailsService userDetailsService;
 
     private AuthTokenFilter authTokenFilter;
 
@@ -35,6 +40,7 @@ class AuthTokenFilterTest {
         authTokenFilter = new AuthTokenFilter();
         ReflectionTestUtils.setField(authTokenFilter, "jwtUtils", jwtUtils);
         ReflectionTestUtils.setField(authTokenFilter, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(authTokenFilter, "tokenCache", new JwtTokenCache(100, 60000, 86400000, new SimpleMeterRegistry()));
         SecurityContextHolder.clearContext();
     }
 
@@ -53,16 +59,17 @@ class AuthTokenFilterTest {
                 .password("password")
                 .build();
 
-        when(jwtUtils.validateJwtToken("validToken")).thenReturn(true);
-        when(jwtUtils.getUserNameFromJwtToken("validToken")).thenReturn("test@test.com");
+        when(jwtUtils.verifyJwtToken("validToken"))
+                .thenReturn(new VerifiedToken("test@test.com", 1L, "Test", "User", new Date(), new Date(), false));
         when(userDetailsService.loadUserByUsername("test@test.com")).thenReturn(userDetails);
 
         authTokenFilter.doFilterInternal(request, response, filterChain);
 
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNotNull();
         assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).isEqualTo(userDetails);
-        verify(jwtUtils).validateJwtToken("validToken");
-        verify(jwtUtils).getUserNameFromJwtToken("validToken");
+        verify(jwtUtils, times(1)).verifyJwtToken("validToken");
+        verify(jwtUtils, never()).validateJwtToken(anyString());
+        verify(jwtUtils, never()).getUserNameFromJwtToken(anyString());
         verify(userDetailsService).loadUserByUsername("test@test.com");
     }
 
@@ -73,13 +80,12 @@ class AuthTokenFilterTest {
         MockHttpServletResponse response = new MockHttpServletResponse();
         MockFilterChain filterChain = new MockFilterChain();
 
-        when(jwtUtils.validateJwtToken("invalidToken")).thenReturn(false);
+        when(jwtUtils.verifyJwtToken("invalidToken")).thenReturn(null);
 
         authTokenFilter.doFilterInternal(request, response, filterChain);
 
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
-        verify(jwtUtils).validateJwtToken("invalidToken");
-        verify(jwtUtils, never()).getUserNameFromJwtToken(anyString());
+        verify(jwtUtils).verifyJwtToken("invalidToken");
         verify(userDetailsService, never()).loadUserByUsername(anyString());
     }
 
@@ -92,7 +98,7 @@ class AuthTokenFilterTest {
         authTokenFilter.doFilterInternal(request, response, filterChain);
 
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
-        verify(jwtUtils, never()).validateJwtToken(anyString());
+        verify(jwtUtils, never()).verifyJwtToken(anyString());
         verify(userDetailsService, never()).loadUserByUsername(anyString());
     }
 
@@ -106,7 +112,7 @@ class AuthTokenFilterTest {
         authTokenFilter.doFilterInternal(request, response, filterChain);
 
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
-        verify(jwtUtils, never()).validateJwtToken(anyString());
+        verify(jwtUtils, never()).verifyJwtToken(anyString());
     }
 
     @Test
@@ -116,10 +122,115 @@ class AuthTokenFilterTest {
         MockHttpServletResponse response = new MockHttpServletResponse();
         MockFilterChain filterChain = new MockFilterChain();
 
-        when(jwtUtils.validateJwtToken("validToken")).thenThrow(new RuntimeException("JWT Error"));
+        when(jwtUtils.verifyJwtToken("validToken")).thenThrow(new RuntimeException("JWT Error"));
+
+        authTokenFilter.doFilterInternal(request, response, filterChain);
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    void doFilterInternal_WithStatelessPrincipal_ShouldBuildPrincipalFromClaims() throws ServletException, IOException {
+        ReflectionTestUtils.setField(authTokenFilter, "statelessPrincipal", true);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer validToken");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain filterChain = new MockFilterChain();
+
+        when(jwtUtils.verifyJwtToken("validToken"))
+                .thenReturn(new VerifiedToken("admin@test.com", 7L, "Admin", "User", new Date(), new Date(), true));
+
+        authTokenFilter.doFilterInternal(request, response, filterChain);
+
+        UserDetailsImpl principal = (UserDetailsImpl) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        assertThat(principal.getId()).isEqualTo(7L);
+        assertThat(principal.getUsername()).isEqualTo("admin@test.com");
+        assertThat(principal.getFirstName()).isEqualTo("Admin");
+        assertThat(principal.getLastName()).isEqualTo("User");
+        assertThat(principal.getAdmin()).isTrue();
+        assertThat(principal.getPassword()).isNull();
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    void doFilterInternal_WithStatelessPrincipalAndLegacyToken_ShouldLoadUser() throws ServletException, IOException {
+        ReflectionTestUtils.setField(authTokenFilter, "statelessPrincipal", true);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer legacyToken");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain filterChain = new MockFilterChain();
+
+        UserDetailsImpl userDetails = UserDetailsImpl.builder()
+                .id(1L)
+                .username("test@test.com")
+                .build();
+
+        when(jwtUtils.verifyJwtToken("legacyToken"))
+                .thenReturn(new VerifiedToken("test@test.com", null, null, null, new Date(), new Date(), false));
+        when(userDetailsService.loadUserByUsername("test@test.com")).thenReturn(userDetails);
 
         authTokenFilter.doFilterInternal(request, response, filterChain);
 
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).isEqualTo(userDetails);
+        verify(userDetailsService).loadUserByUsername("test@test.com");
+    }
+
+    @Test
+    void doFilterInternal_WithRepeatedToken_ShouldVerifyOnlyOnce() throws ServletException, IOException {
+        UserDetailsImpl userDetails = UserDetailsImpl.builder()
+                .id(1L)
+                .username("test@test.com")
+                .build();
+
+        when(jwtUtils.verifyJwtToken("validToken"))
+                .thenReturn(new VerifiedToken("test@test.com", 1L, "Test", "User", new Date(),
+                        new Date(System.currentTimeMillis() + 60000), false));
+        when(userDetailsService.loadUserByUsername("test@test.com")).thenReturn(userDetails);
+
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.addHeader("Authorization", "Bearer validToken");
+            SecurityContextHolder.clearContext();
+
+            authTokenFilter.doFilterInternal(request, new MockHttpServletResponse(), new MockFilterChain());
+
+            assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).isEqualTo(userDetails);
+        }
+
+        verify(jwtUtils, times(1)).verifyJwtToken("validToken");
+    }
+
+    @Test
+    void doFilterInternal_WithUnknownUser_ShouldCloseThePrincipalPhase() throws ServletException, IOException {
+        RequestTimingFilter timingFilter = new RequestTimingFilter(new SimpleMeterRegistry(), 500, true);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer validToken");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        when(jwtUtils.verifyJwtToken("validToken"))
+                .thenReturn(new VerifiedToken("gone@test.com", 1L, "Gone", "User", new Date(), new Date(), false));
+        when(userDetailsService.loadUserByUsername("gone@test.com"))
+                .thenThrow(new UsernameNotFoundException("gone@test.com"));
+
+        timingFilter.doFilter(request, response, (req, res) -> {
+            authTokenFilter.doFilter(req, res, new MockFilterChain());
+            try {
+                TimeUnit.MILLISECONDS.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        assertThat(parseDuration(response.getHeader("Server-Timing"), "principal")).isLessThan(100);
+    }
+
+    private static double parseDuration(String serverTiming, String metric) {
+        for (String entry : serverTiming.split(", ")) {
+            if (entry.startsWith(metric + ";")) {
+                return Double.parseDouble(entry.substring(entry.lastIndexOf("dur=") + 4));
+            }
+        }
+        throw new AssertionError(metric + " missing from " + serverTiming);
     }
 }
@@ -0,0 +1,137 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtTokenCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private JwtTokenCache jwtTokenCache;
+    private AtomicInteger verifications;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        jwtTokenCache = new JwtTokenCache(100, 60000, 86400000, meterRegistry);
+        verifications = new AtomicInteger();
+    }
+
+    private Function<String, VerifiedToken> verifier(String subject, Date issuedAt, Date expiration) {
+        return jwt -> {
+            verifications.incrementAndGet();
+            return new VerifiedToken(subject, 1L, "Test", "User", issuedAt, expiration, false);
+        };
+    }
+
+    private Date inMillis(long millis) {
+        return new Date(System.currentTimeMillis() + millis);
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", JwtTokenCache.CACHE_NAME).tag("result", result)
+                .functionCounter().count();
+    }
+
+    @Test
+    void verify_WithSameToken_ShouldVerifyOnceAndCountHits() {
+        Function<String, VerifiedToken> verifier = verifier("test@test.com", inMillis(-1000), inMillis(60000));
+
+        VerifiedToken first = jwtTokenCache.verify("token", verifier);
+        VerifiedToken second = jwtTokenCache.verify("token", verifier);
+
+        assertThat(first).isNotNull();
+        assertThat(second).isSameAs(first);
+        assertThat(verifications.get()).isEqualTo(1);
+        assertThat(cacheGets("hit")).isEqualTo(1);
+        assertThat(cacheGets("miss")).isEqualTo(1);
+    }
+
+    @Test
+    void verify_WithInvalidToken_ShouldNotCacheResult() {
+        Function<String, VerifiedToken> verifier = jwt -> {
+            verifications.incrementAndGet();
+            return null;
+        };
+
+        assertThat(jwtTokenCache.verify("invalid", verifier)).isNull();
+        assertThat(jwtTokenCache.verify("invalid", verifier)).isNull();
+
+        assertThat(verifications.get()).isEqualTo(2);
+        assertThat(jwtTokenCache.size()).isZero();
+    }
+
+    @Test
+    void verify_WithExpiredEntry_ShouldVerifyAgain() {
+        Function<String, VerifiedToken> verifier = verifier("test@test.com", inMillis(-1000), inMillis(-1));
+
+        jwtTokenCache.verify("token", verifier);
+        jwtTokenCache.verify("token", verifier);
+
+        assertThat(verifications.get()).isEqualTo(2);
+    }
+
+    @Test
+    void verify_WhenCacheIsFull_ShouldEvictEntries() {
+        SimpleMeterRegistry smallCacheRegistry = new SimpleMeterRegistry();
+        JwtTokenCache smallCache = new JwtTokenCache(2, 60000, 86400000, smallCacheRegistry);
+
+        for (int i = 0; i < 10; i++) {
+            smallCache.verify("token" + i, verifier("user" + i + "@test.com", inMillis(-1000), inMillis(60000)));
+        }
+        smallCache.cleanUp();
+
+        assertThat(smallCacheRegistry.get("cache.evictions").tag("cache", JwtTokenCache.CACHE_NAME)
+                .functionCounter().count()).isPositive();
+        assertThat(smallCache.size()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void invalidateUser_ShouldRejectTokensIssuedBefore() {
+        Function<String, VerifiedToken> verifier = verifier("test@test.com", inMillis(-1000), inMillis(60000));
+        jwtTokenCache.verify("token", verifier);
+
+        jwtTokenCache.invalidateUser("test@test.com");
+
+        assertThat(jwtTokenCache.size()).isZero();
+        assertThat(jwtTokenCache.verify("token", verifier)).isNull();
+    }
+
+    @Test
+    void invalidateUser_ShouldAcceptTokensIssuedAfter() {
+        jwtTokenCache.invalidateUser("test@test.com");
+
+        VerifiedToken token = jwtTokenCache.verify("newToken",
+                verifier("test@test.com", inMillis(5000), inMillis(60000)));
+
+        assertThat(token).isNotNull();
+    }
+
+    @Test
+    void invalidateUser_ShouldAcceptTokensIssuedInTheSameSecond() {
+        jwtTokenCache.invalidateUser("test@test.com");
+        // iat has no milliseconds
+        Date issuedAt = new Date(System.currentTimeMillis() / 1000 * 1000);
+
+        VerifiedToken token = jwtTokenCache.verify("newToken",
+                verifier("test@test.com", issuedAt, inMillis(60000)));
+
+        assertThat(token).isNotNull();
+    }
+
+    @Test
+    void invalidateUser_ShouldKeepOtherSubjects() {
+        jwtTokenCache.verify("token", verifier("other@test.com", inMillis(-1000), inMillis(60000)));
+
+        jwtTokenCache.invalidateUser("test@test.com");
+
+        assertThat(jwtTokenCache.size()).isEqualTo(1);
+        assertThat(jwtTokenCache.verify("token", verifier("other@test.com", inMillis(-1000), inMillis(60000)))).isNotNull();
+    }
+}
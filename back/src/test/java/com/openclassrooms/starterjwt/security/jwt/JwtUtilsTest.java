@@ -3,28 +3,44 @@ package com.openclassrooms.starterjwt.security.jwt;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.security.core.Authentication;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 class JwtUtilsTest {
 
     private JwtUtils jwtUtils;
+    private SimpleMeterRegistry meterRegistry;
     private final String jwtSecret = "testSecretKeyForJwtTokenGenerationAndValidation";
     private final int jwtExpirationMs = 86400000;
 
     @BeforeEach
-    void setUp() {
+    void setUp() throws IOException {
+        meterRegistry = new SimpleMeterRegistry();
         jwtUtils = new JwtUtils();
         ReflectionTestUtils.setField(jwtUtils, "jwtSecret", jwtSecret);
         ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", jwtExpirationMs);
+        ReflectionTestUtils.setField(jwtUtils, "meterRegistry", meterRegistry);
+        jwtUtils.init();
     }
 
     @Test
@@ -125,4 +141,158 @@ class JwtUtilsTest {
 
         assertThat(isValid).isFalse();
     }
+
+    @Test
+    void verifyJwtToken_WithGeneratedToken_ShouldReturnClaims() {
+        UserDetailsImpl userDetails = UserDetailsImpl.builder()
+                .id(42L)
+                .username("admin@test.com")
+                .firstName("Admin")
+                .lastName("User")
+                .admin(true)
+                .password("password")
+                .build();
+
+        Authentication authentication = mock(Authentication.class);
+        when(authentication.getPrincipal()).thenReturn(userDetails);
+
+        VerifiedToken verified = jwtUtils.verifyJwtToken(jwtUtils.generateJwtToken(authentication));
+
+        assertThat(verified).isNotNull();
+        assertThat(verified.getSubject()).isEqualTo("admin@test.com");
+        assertThat(verified.getId()).isEqualTo(42L);
+        assertThat(verified.getFirstName()).isEqualTo("Admin");
+        assertThat(verified.getLastName()).isEqualTo("User");
+        assertThat(verified.isAdmin()).isTrue();
+        assertThat(verified.getExpiration()).isAfter(new Date());
+    }
+
+    @Test
+    void verifyJwtToken_WithoutCustomClaims_ShouldReturnSubjectOnly() {
+        String token = Jwts.builder()
+                .setSubject("test@test.com")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
+                .signWith(SignatureAlgorithm.HS512, jwtSecret)
+                .compact();
+
+        VerifiedToken verified = jwtUtils.verifyJwtToken(token);
+
+        assertThat(verified).isNotNull();
+        assertThat(verified.getSubject()).isEqualTo("test@test.com");
+        assertThat(verified.getId()).isNull();
+        assertThat(verified.isAdmin()).isFalse();
+    }
+
+    @Test
+    void verifyJwtToken_WithInvalidSignature_ShouldReturnNull() {
+        String token = Jwts.builder()
+                .setSubject("test@test.com")
+                .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
+                .signWith(SignatureAlgorithm.HS512, "wrongSecret")
+                .compact();
+
+        assertThat(jwtUtils.verifyJwtToken(token)).isNull();
+    }
+
+    @Test
+    void verifyJwtToken_WithExpiredToken_ShouldReturnNull() {
+        String token = Jwts.builder()
+                .setSubject("test@test.com")
+                .setExpiration(new Date(System.currentTimeMillis() - 5000))
+                .signWith(SignatureAlgorithm.HS512, jwtSecret)
+                .compact();
+
+        assertThat(jwtUtils.verifyJwtToken(token)).isNull();
+    }
+
+    @Test
+    void verifyJwtToken_ShouldCountEachOutcome() {
+        String valid = Jwts.builder()
+                .setSubject("test@test.com")
+                .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
+                .signWith(SignatureAlgorithm.HS512, jwtSecret)
+                .compact();
+        String expired = Jwts.builder()
+                .setSubject("test@test.com")
+                .setExpiration(new Date(System.currentTimeMillis() - 5000))
+                .signWith(SignatureAlgorithm.HS512, jwtSecret)
+                .compact();
+        String wrongSignature = Jwts.builder()
+                .setSubject("test@test.com")
+                .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
+                .signWith(SignatureAlgorithm.HS512, "wrongSecret")
+                .compact();
+
+        jwtUtils.verifyJwtToken(valid);
+        jwtUtils.verifyJwtToken(valid);
+        jwtUtils.verifyJwtToken(expired);
+        jwtUtils.verifyJwtToken(wrongSignature);
+        jwtUtils.verifyJwtToken("malformed.jwt.token");
+        jwtUtils.verifyJwtToken("");
+
+        assertThat(verifications("valid")).isEqualTo(2);
+        assertThat(verifications("expired")).isEqualTo(1);
+        assertThat(verifications("invalid_signature")).isEqualTo(1);
+        assertThat(verifications("malformed")).isEqualTo(1);
+        assertThat(verifications("empty")).isEqualTo(1);
+        assertThat(verifications("unsupported")).isZero();
+    }
+
+    private double verifications(String outcome) {
+        return meterRegistry.get(JwtUtils.VERIFICATIONS_METRIC).tag("outcome", outcome).counter().count();
+    }
+
+    @Test
+    void init_WithSecretFile_ShouldUseFileContent(@TempDir Path tempDir) throws IOException {
+        Path secretFile = tempDir.resolve("jwt.key");
+        Files.write(secretFile, "fileSecretKeyForJwtTokenSigning\n".getBytes(StandardCharsets.US_ASCII));
+
+        JwtUtils fileJwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(fileJwtUtils, "jwtSecret", jwtSecret);
+        ReflectionTestUtils.setField(fileJwtUtils, "jwtSecretFile", secretFile.toString());
+        ReflectionTestUtils.setField(fileJwtUtils, "jwtExpirationMs", jwtExpirationMs);
+        fileJwtUtils.init();
+
+        String token = Jwts.builder()
+                .setSubject("test@test.com")
+                .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
+                .signWith(SignatureAlgorithm.HS512, "fileSecretKeyForJwtTokenSigning")
+                .compact();
+
+        assertThat(fileJwtUtils.validateJwtToken(token)).isTrue();
+        assertThat(jwtUtils.validateJwtToken(token)).isFalse();
+    }
+
+    @Test
+    void init_WithoutSecret_ShouldFail() {
+        JwtUtils emptyJwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(emptyJwtUtils, "jwtSecret", "");
+
+        assertThatThrownBy(emptyJwtUtils::init).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void verifyJwtToken_ShouldBeSafeToShareAcrossThreads() throws Exception {
+        UserDetailsImpl userDetails = UserDetailsImpl.builder()
+                .id(1L)
+                .username("test@test.com")
+                .build();
+        Authentication authentication = mock(Authentication.class);
+        when(authentication.getPrincipal()).thenReturn(userDetails);
+        String token = jwtUtils.generateJwtToken(authentication);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<VerifiedToken>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                results.add(executor.submit(() -> jwtUtils.verifyJwtToken(token)));
+            }
+            for (Future<VerifiedToken> result : results) {
+                assertThat(result.get().getSubject()).isEqualTo("test@test.com");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
@@ -0,0 +1,107 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingUserDetailsServiceTest {
+
+    @Mock
+    private UserDetailsServiceImpl userDetailsServiceImpl;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private CachingUserDetailsService cachingUserDetailsService;
+
+    private UserDetailsImpl userDetails;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cachingUserDetailsService = new CachingUserDetailsService(userDetailsServiceImpl, 100, 60000, meterRegistry);
+
+        userDetails = UserDetailsImpl.builder()
+                .id(1L)
+                .username("test@test.com")
+                .firstName("Test")
+                .lastName("User")
+                .password("password")
+                .build();
+    }
+
+    @Test
+    void loadUserByUsername_ShouldLoadOnceAndRecordHits() {
+        when(userDetailsServiceImpl.loadUserByUsername("test@test.com")).thenReturn(userDetails);
+
+        UserDetails first = cachingUserDetailsService.loadUserByUsername("test@test.com");
+        UserDetails second = cachingUserDetailsService.loadUserByUsername("test@test.com");
+
+        assertThat(first).isSameAs(userDetails);
+        assertThat(second).isSameAs(userDetails);
+        verify(userDetailsServiceImpl, times(1)).loadUserByUsername("test@test.com");
+        assertThat(meterRegistry.get("cache.gets").tag("cache", CachingUserDetailsService.CACHE_NAME)
+                .tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", CachingUserDetailsService.CACHE_NAME)
+                .tag("result", "miss").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.load").tag("cache", CachingUserDetailsService.CACHE_NAME)
+                .tag("result", "success").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void loadUserByUsername_WithUnknownEmail_ShouldNotCacheFailure() {
+        when(userDetailsServiceImpl.loadUserByUsername("unknown@test.com"))
+                .thenThrow(new UsernameNotFoundException("User Not Found with email: unknown@test.com"));
+
+        assertThatThrownBy(() -> cachingUserDetailsService.loadUserByUsername("unknown@test.com"))
+                .isInstanceOf(UsernameNotFoundException.class);
+        assertThatThrownBy(() -> cachingUserDetailsService.loadUserByUsername("unknown@test.com"))
+                .isInstanceOf(UsernameNotFoundException.class);
+
+        verify(userDetailsServiceImpl, times(2)).loadUserByUsername("unknown@test.com");
+    }
+
+    @Test
+    void evict_ShouldReloadUser() {
+        when(userDetailsServiceImpl.loadUserByUsername("test@test.com")).thenReturn(userDetails);
+
+        cachingUserDetailsService.loadUserByUsername("test@test.com");
+        cachingUserDetailsService.evict("test@test.com");
+        cachingUserDetailsService.loadUserByUsername("test@test.com");
+
+        verify(userDetailsServiceImpl, times(2)).loadUserByUsername("test@test.com");
+    }
+
+    @Test
+    void evictUser_ShouldDropEntryById() {
+        when(userDetailsServiceImpl.loadUserByUsername("test@test.com")).thenReturn(userDetails);
+        cachingUserDetailsService.loadUserByUsername("test@test.com");
+
+        cachingUserDetailsService.evictUser(1L);
+
+        when(userDetailsServiceImpl.loadUserByUsername("test@test.com"))
+                .thenThrow(new UsernameNotFoundException("User Not Found with email: test@test.com"));
+        assertThatThrownBy(() -> cachingUserDetailsService.loadUserByUsername("test@test.com"))
+                .isInstanceOf(UsernameNotFoundException.class);
+    }
+
+    @Test
+    void evictUser_ShouldKeepOtherUsers() {
+        when(userDetailsServiceImpl.loadUserByUsername("test@test.com")).thenReturn(userDetails);
+        cachingUserDetailsService.loadUserByUsername("test@test.com");
+
+        cachingUserDetailsService.evictUser(2L);
+        cachingUserDetailsService.loadUserByUsername("test@test.com");
+
+        verify(userDetailsServiceImpl, times(1)).loadUserByUsername("test@test.com");
+    }
+}
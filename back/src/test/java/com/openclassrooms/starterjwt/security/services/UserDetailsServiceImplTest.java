@@ -45,6 +45,7 @@ class UserDetailsServiceImplTest {
         assertThat(userDetails).isNotNull();
         assertThat(userDetails.getUsername()).isEqualTo("test@test.com");
         assertThat(userDetails.getPassword()).isEqualTo("password123");
+        assertThat(((UserDetailsImpl) userDetails).getAdmin()).isFalse();
         verify(userRepository).findByEmail("test@test.com");
     }
 
@@ -77,6 +78,7 @@ class UserDetailsServiceImplTest {
         assertThat(userDetails).isNotNull();
         assertThat(userDetails.getUsername()).isEqualTo("admin@test.com");
         assertThat(userDetails.getPassword()).isEqualTo("adminpass");
+        assertThat(((UserDetailsImpl) userDetails).getAdmin()).isTrue();
     }
 
     @Test
@@ -109,4 +111,22 @@ class UserDetailsServiceImplTest {
         assertThatThrownBy(() -> userDetailsService.loadUserByUsername("nonexistent@test.com"))
                 .isInstanceOf(UsernameNotFoundException.class);
     }
+
+    @Test
+    void updatePassword_ShouldStoreHashAndReturnUpdatedDetails() {
+        UserDetailsImpl user = UserDetailsImpl.builder()
+                .id(1L)
+                .username("test@test.com")
+                .firstName("John")
+                .lastName("Doe")
+                .password("old-hash")
+                .build();
+
+        UserDetails updated = userDetailsService.updatePassword(user, "new-hash");
+
+        verify(userRepository).updatePassword("test@test.com", "new-hash");
+        assertThat(updated.getPassword()).isEqualTo("new-hash");
+        assertThat(updated.getUsername()).isEqualTo("test@test.com");
+        assertThat(((UserDetailsImpl) updated).getId()).isEqualTo(1L);
+    }
 }
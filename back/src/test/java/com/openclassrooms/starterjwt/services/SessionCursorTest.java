@@ -0,0 +1,47 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SessionCursorTest {
+
+    @Test
+    void encode_ShouldRoundTrip() {
+        SessionCursor cursor = new SessionCursor(1700000000123L, 42L);
+
+        SessionCursor decoded = SessionCursor.decode(cursor.encode());
+
+        assertThat(decoded).isEqualTo(cursor);
+        assertThat(decoded.toDate()).isEqualTo(new Date(1700000000123L));
+        assertThat(decoded.getId()).isEqualTo(42L);
+    }
+
+    @Test
+    void encode_ShouldBeUrlSafe() {
+        String token = new SessionCursor(Long.MAX_VALUE, Long.MAX_VALUE).encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void of_ShouldUseSessionDateAndId() {
+        SessionDto session = new SessionDto(7L, "Session", new Date(1000L), 1L, "Description", null, false, null, null);
+
+        assertThat(SessionCursor.of(session)).isEqualTo(new SessionCursor(1000L, 7L));
+    }
+
+    @Test
+    void decode_WithGarbage_ShouldThrowIllegalArgumentException() {
+        assertThatThrownBy(() -> SessionCursor.decode("%%%"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SessionCursor.decode("bm8tc2VwYXJhdG9y"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SessionCursor.decode("YWJjOjQy"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,230 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.exception.SessionFullException;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SessionServiceConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int USERS = 200;
+    private static final int CAPACITY = 25;
+
+    private final SessionService sessionService;
+    private final SessionRepository sessionRepository;
+    private final UserRepository userRepository;
+    private final WaitlistRepository waitlistRepository;
+
+    @Autowired
+    public SessionServiceConcurrencyTest(SessionService sessionService,
+                                         SessionRepository sessionRepository,
+                                         UserRepository userRepository,
+                                         WaitlistRepository waitlistRepository) {
+        this.sessionService = sessionService;
+        this.sessionRepository = sessionRepository;
+        this.userRepository = userRepository;
+        this.waitlistRepository = waitlistRepository;
+    }
+
+    private List<Long> userIds;
+
+    @BeforeEach
+    void setUp() {
+        userIds = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = userRepository.save(User.builder()
+                    .email("concurrent" + i + "@test.com")
+                    .lastName("Doe")
+                    .firstName("John")
+                    .password("password123")
+                    .admin(false)
+                    .build());
+            userIds.add(user.getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        waitlistRepository.deleteAll();
+        sessionRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void participate_UnderContention_ShouldNeverOverbook() throws Exception {
+        Session session = sessionService.create(Session.builder()
+                .name("Popular Yoga")
+                .description("Opens to everyone at once")
+                .date(new Date())
+                .capacity(CAPACITY)
+                .users(new ArrayList<>())
+                .build());
+        Long sessionId = session.getId();
+
+        AtomicInteger confirmed = new AtomicInteger();
+        AtomicInteger full = new AtomicInteger();
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Long userId : userIds) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        sessionService.participate(sessionId, userId);
+                        confirmed.incrementAndGet();
+                    } catch (SessionFullException e) {
+                        full.incrementAndGet();
+                    } catch (Throwable e) {
+                        unexpected.add(e);
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(unexpected).isEmpty();
+        assertThat(confirmed.get()).isEqualTo(CAPACITY);
+        assertThat(full.get()).isEqualTo(USERS - CAPACITY);
+        assertThat(sessionRepository.findParticipants(Collections.singletonList(sessionId))).hasSize(CAPACITY);
+        assertThat(sessionRepository.findById(sessionId).get().getSeatsTaken()).isEqualTo(CAPACITY);
+    }
+
+    @Test
+    void participateAndLeave_UnderContention_ShouldKeepSeatCountConsistent() throws Exception {
+        Session session = sessionService.create(Session.builder()
+                .name("Busy Yoga")
+                .description("Users join and leave concurrently")
+                .date(new Date())
+                .capacity(CAPACITY)
+                .users(new ArrayList<>())
+                .build());
+        Long sessionId = session.getId();
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Long userId : userIds) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        sessionService.participate(sessionId, userId);
+                        if (userId % 2 == 0) {
+                            sessionService.noLongerParticipate(sessionId, userId);
+                        }
+                    } catch (SessionFullException e) {
+                        // expected once the session is full
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int participants = sessionRepository.findParticipants(Collections.singletonList(sessionId)).size();
+        assertThat(participants).isLessThanOrEqualTo(CAPACITY);
+        assertThat(sessionRepository.findById(sessionId).get().getSeatsTaken()).isEqualTo(participants);
+    }
+
+    @Test
+    void cancellations_UnderContention_ShouldPromoteWaitlistInOrder() throws Exception {
+        Session session = sessionService.create(Session.builder()
+                .name("Waitlisted Yoga")
+                .description("Cancellations promote waiting users")
+                .date(new Date())
+                .capacity(CAPACITY)
+                .waitlistEnabled(true)
+                .users(new ArrayList<>())
+                .build());
+        Long sessionId = session.getId();
+
+        List<Long> confirmed = Collections.synchronizedList(new ArrayList<>());
+        runConcurrently(userIds, userId -> {
+            if (sessionService.participate(sessionId, userId) == ParticipationStatus.CONFIRMED) {
+                confirmed.add(userId);
+            }
+        });
+        assertThat(confirmed).hasSize(CAPACITY);
+        assertThat(waitlistRepository.count()).isEqualTo(USERS - CAPACITY);
+
+        List<Long> firstWaiting = new ArrayList<>();
+        waitlistRepository.findAll(Sort.by("id")).stream()
+                .limit(CAPACITY)
+                .forEach(entry -> firstWaiting.add(entry.getUserId()));
+
+        runConcurrently(confirmed, userId -> sessionService.noLongerParticipate(sessionId, userId));
+
+        List<Long> participants = new ArrayList<>();
+        sessionRepository.findParticipants(Collections.singletonList(sessionId))
+                .forEach(participant -> participants.add(participant.getUserId()));
+        assertThat(participants).containsExactlyInAnyOrderElementsOf(firstWaiting);
+        assertThat(sessionRepository.findById(sessionId).get().getSeatsTaken()).isEqualTo(CAPACITY);
+        assertThat(waitlistRepository.count()).isEqualTo(USERS - 2 * CAPACITY);
+    }
+
+    private void runConcurrently(List<Long> ids, Consumer<Long> action) throws Exception {
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Long id : ids) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        action.accept(id);
+                    } catch (Throwable e) {
+                        unexpected.add(e);
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(unexpected).isEmpty();
+    }
+}
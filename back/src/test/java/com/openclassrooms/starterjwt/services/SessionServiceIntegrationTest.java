@@ -1,16 +1,23 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.exception.SessionFullException;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
 import com.openclassrooms.starterjwt.repository.TeacherRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDateTime;
@@ -19,6 +26,7 @@ import java.util.Date;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 @ActiveProfiles("test")
@@ -28,16 +36,19 @@ class SessionServiceIntegrationTest {
     private final SessionRepository sessionRepository;
     private final UserRepository userRepository;
     private final TeacherRepository teacherRepository;
+    private final WaitlistRepository waitlistRepository;
 
     @Autowired
     public SessionServiceIntegrationTest(SessionService sessionService,
                                          SessionRepository sessionRepository,
                                          UserRepository userRepository,
-                                         TeacherRepository teacherRepository) {
+                                         TeacherRepository teacherRepository,
+                                         WaitlistRepository waitlistRepository) {
         this.sessionService = sessionService;
         this.sessionRepository = sessionRepository;
         this.userRepository = userRepository;
         this.teacherRepository = teacherRepository;
+        this.waitlistRepository = waitlistRepository;
     }
 
     private Teacher teacher;
@@ -67,6 +78,7 @@ class SessionServiceIntegrationTest {
 
     @AfterEach
     void tearDown() {
+        waitlistRepository.deleteAll();
         sessionRepository.deleteAll();
         userRepository.deleteAll();
         teacherRepository.deleteAll();
@@ -135,7 +147,7 @@ class SessionServiceIntegrationTest {
     }
 
     @Test
-    void findAll_ShouldReturnAllCreatedSessions() {
+    void findPage_ShouldReturnAllCreatedSessions() {
         Session session1 = Session.builder()
                 .name("Morning Yoga")
                 .description("Morning session")
@@ -159,11 +171,221 @@ class SessionServiceIntegrationTest {
         sessionService.create(session1);
         sessionService.create(session2);
 
-        List<Session> allSessions = sessionService.findAll();
+        List<SessionDto> allSessions = sessionService.findPage(0, 10).getContent();
 
         assertThat(allSessions).hasSize(2);
         assertThat(allSessions)
-                .extracting(Session::getName)
+                .extracting(SessionDto::getName)
                 .containsExactlyInAnyOrder("Morning Yoga", "Evening Yoga");
     }
+
+    @Test
+    void findAfter_ShouldScrollEverySessionOnceInDateThenIdOrder() {
+        Date sameDate = new Date(1700000000000L);
+        List<Long> expectedIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Session session = sessionService.create(Session.builder()
+                    .name("Keyset " + i)
+                    .description("Keyset session")
+                    .date(i < 3 ? sameDate : new Date(sameDate.getTime() - 60000L * i))
+                    .teacher(teacher)
+                    .users(new ArrayList<>())
+                    .build());
+            expectedIds.add(session.getId());
+        }
+        // 4 and 3 are earlier, then 0, 1, 2 share the same date and are ordered by id
+        expectedIds.add(0, expectedIds.remove(3));
+        expectedIds.add(0, expectedIds.remove(4));
+
+        List<Long> scrolled = new ArrayList<>();
+        SessionCursor cursor = null;
+        Slice<SessionDto> slice;
+        do {
+            slice = sessionService.findAfter(cursor, 2);
+            assertThat(slice.getContent()).hasSizeLessThanOrEqualTo(2);
+            slice.getContent().forEach(session -> scrolled.add(session.getId()));
+            if (slice.hasNext()) {
+                cursor = SessionCursor.decode(SessionCursor.of(slice.getContent().get(1)).encode());
+            }
+        } while (slice.hasNext());
+
+        assertThat(scrolled).containsExactlyElementsOf(expectedIds);
+        assertThat(sessionService.findPage(1, 2).getContent())
+                .extracting(SessionDto::getId)
+                .containsExactlyElementsOf(expectedIds.subList(2, 4));
+    }
+
+    @Test
+    void users_ShouldStayLazyOutsideGetById() {
+        Session session = sessionService.create(Session.builder()
+                .name("Lazy Yoga")
+                .description("Lazy participants")
+                .date(new Date())
+                .teacher(teacher)
+                .users(new ArrayList<>())
+                .build());
+        sessionService.participate(session.getId(), user.getId());
+
+        List<Session> sessions = sessionRepository.findAll();
+
+        assertThat(sessions).hasSize(1);
+        assertThat(Hibernate.isInitialized(sessions.get(0).getUsers())).isFalse();
+        assertThat(Hibernate.isInitialized(sessionService.getById(session.getId()).getUsers())).isTrue();
+    }
+
+    @Test
+    void findPageAndGetDtoById_ShouldProjectColumnsAndParticipantIds() {
+        Session session = sessionService.create(Session.builder()
+                .name("Projected Yoga")
+                .description("Projected session")
+                .date(new Date())
+                .teacher(teacher)
+                .users(new ArrayList<>())
+                .build());
+        Session empty = sessionService.create(Session.builder()
+                .name("Empty Yoga")
+                .description("No participants")
+                .date(new Date())
+                .users(new ArrayList<>())
+                .build());
+        sessionService.participate(session.getId(), user.getId());
+
+        List<SessionDto> sessions = sessionService.findPage(0, 10).getContent();
+
+        assertThat(sessions).extracting(SessionDto::getId).containsExactlyInAnyOrder(session.getId(), empty.getId());
+        SessionDto projected = sessions.stream().filter(dto -> dto.getId().equals(session.getId())).findFirst().get();
+        assertThat(projected.getName()).isEqualTo("Projected Yoga");
+        assertThat(projected.getDescription()).isEqualTo("Projected session");
+        assertThat(projected.getTeacher_id()).isEqualTo(teacher.getId());
+        assertThat(projected.getUsers()).containsExactly(user.getId());
+
+        SessionDto withoutTeacher = sessionService.getDtoById(empty.getId());
+        assertThat(withoutTeacher.getTeacher_id()).isNull();
+        assertThat(withoutTeacher.getUsers()).isEmpty();
+        assertThat(sessionService.getDtoById(session.getId()).getUsers()).containsExactly(user.getId());
+        assertThat(sessionService.getDtoById(-1L)).isNull();
+    }
+
+    @Test
+    void participate_ShouldRejectDuplicatesAndUnknownIdsThroughConstraints() {
+        Session session = sessionService.create(Session.builder()
+                .name("Constraint Yoga")
+                .description("Single row participation")
+                .date(new Date())
+                .teacher(teacher)
+                .users(new ArrayList<>())
+                .build());
+        Long sessionId = session.getId();
+        Long userId = user.getId();
+
+        sessionService.participate(sessionId, userId);
+
+        assertThatThrownBy(() -> sessionService.participate(sessionId, userId))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> sessionService.participate(sessionId, userId + 1000))
+                .isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> sessionService.participate(sessionId + 1000, userId))
+                .isInstanceOf(NotFoundException.class);
+        assertThat(sessionService.getById(sessionId).getUsers()).extracting(User::getId).containsExactly(userId);
+
+        sessionService.noLongerParticipate(sessionId, userId);
+
+        assertThatThrownBy(() -> sessionService.noLongerParticipate(sessionId, userId))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> sessionService.noLongerParticipate(sessionId + 1000, userId))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void capacity_ShouldCountSeatsFromCreateUpdateAndParticipation() {
+        User other = userRepository.save(User.builder()
+                .email("other@test.com")
+                .lastName("Roe")
+                .firstName("Jane")
+                .password("password123")
+                .admin(false)
+                .build());
+        List<User> users = new ArrayList<>();
+        users.add(user);
+        Session session = sessionService.create(Session.builder()
+                .name("Small Yoga")
+                .description("One seat only")
+                .date(new Date())
+                .teacher(teacher)
+                .capacity(1)
+                .users(users)
+                .build());
+        Long sessionId = session.getId();
+
+        assertThat(sessionRepository.findById(sessionId).get().getSeatsTaken()).isEqualTo(1);
+        assertThatThrownBy(() -> sessionService.participate(sessionId, other.getId()))
+                .isInstanceOf(SessionFullException.class);
+
+        sessionService.noLongerParticipate(sessionId, user.getId());
+        sessionService.participate(sessionId, other.getId());
+        assertThat(sessionRepository.findById(sessionId).get().getSeatsTaken()).isEqualTo(1);
+
+        Session update = sessionRepository.findById(sessionId).get();
+        update.setCapacity(2);
+        update.getUsers().add(user);
+        sessionService.update(sessionId, update);
+        assertThat(sessionRepository.findById(sessionId).get().getSeatsTaken()).isEqualTo(2);
+        assertThat(sessionService.getDtoById(sessionId).getCapacity()).isEqualTo(2);
+    }
+
+    @Test
+    void waitlist_ShouldQueueInOrderAndPromoteOnCancellation() {
+        List<User> waiting = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            waiting.add(userRepository.save(User.builder()
+                    .email("waiting" + i + "@test.com")
+                    .lastName("Roe")
+                    .firstName("Jane")
+                    .password("password123")
+                    .admin(false)
+                    .build()));
+        }
+        Session session = sessionService.create(Session.builder()
+                .name("Small Yoga")
+                .description("One seat and a waitlist")
+                .date(new Date())
+                .teacher(teacher)
+                .capacity(1)
+                .waitlistEnabled(true)
+                .users(new ArrayList<>())
+                .build());
+        Long sessionId = session.getId();
+
+        assertThat(sessionService.participate(sessionId, user.getId())).isEqualTo(ParticipationStatus.CONFIRMED);
+        for (User waitingUser : waiting) {
+            assertThat(sessionService.participate(sessionId, waitingUser.getId())).isEqualTo(ParticipationStatus.WAITLISTED);
+        }
+        assertThatThrownBy(() -> sessionService.participate(sessionId, waiting.get(0).getId()))
+                .isInstanceOf(BadRequestException.class);
+        assertThat(sessionService.getWaitlistPosition(sessionId, waiting.get(2).getId())).isEqualTo(3L);
+        assertThat(sessionService.getWaitlistPosition(sessionId, user.getId())).isNull();
+
+        // the second in line leaves the waitlist, the others move up
+        sessionService.noLongerParticipate(sessionId, waiting.get(1).getId());
+        assertThat(sessionService.getWaitlistPosition(sessionId, waiting.get(2).getId())).isEqualTo(2L);
+
+        // the participant cancels, the head of the waitlist takes the seat
+        sessionService.noLongerParticipate(sessionId, user.getId());
+        assertThat(sessionService.getDtoById(sessionId).getUsers()).containsExactly(waiting.get(0).getId());
+        assertThat(sessionRepository.findById(sessionId).get().getSeatsTaken()).isEqualTo(1);
+        assertThat(sessionService.getWaitlistPosition(sessionId, waiting.get(0).getId())).isNull();
+        assertThat(sessionService.getWaitlistPosition(sessionId, waiting.get(2).getId())).isEqualTo(1L);
+
+        // a second seat goes to the rest of the waitlist
+        Session update = sessionRepository.findById(sessionId).get();
+        update.setCapacity(2);
+        sessionService.update(sessionId, update);
+        assertThat(sessionService.getDtoById(sessionId).getUsers())
+                .containsExactlyInAnyOrder(waiting.get(0).getId(), waiting.get(2).getId());
+        assertThat(waitlistRepository.count()).isZero();
+
+        sessionService.participate(sessionId, user.getId());
+        sessionService.delete(sessionId);
+        assertThat(waitlistRepository.count()).isZero();
+    }
 }
@@ -1,18 +1,29 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.dto.SessionDto;
 import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.exception.SessionFullException;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import com.openclassrooms.starterjwt.repository.SessionParticipant;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -36,6 +47,9 @@ class SessionServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private WaitlistRepository waitlistRepository;
+
     @InjectMocks
     private SessionService sessionService;
 
@@ -89,6 +103,7 @@ class SessionServiceTest {
         assertThat(result.getName()).isEqualTo("Yoga Session");
         assertThat(result.getDescription()).isEqualTo("Morning yoga");
         verify(sessionRepository, times(1)).save(mockSession);
+        verify(sessionRepository, times(1)).recountSeats(1L);
     }
 
     @Test
@@ -100,45 +115,74 @@ class SessionServiceTest {
         sessionService.delete(sessionId);
 
         // Then
+        verify(waitlistRepository, times(1)).removeAllEntries(sessionId);
         verify(sessionRepository, times(1)).deleteById(sessionId);
     }
 
     @Test
-    void findAll_ShouldReturnAllSessions() {
-        // Given
-        Session session2 = Session.builder()
-                .id(2L)
-                .name("Pilates Session")
-                .description("Evening pilates")
-                .date(new Date())
-                .teacher(mockTeacher)
-                .users(new ArrayList<>())
-                .build();
-        
-        List<Session> sessions = Arrays.asList(mockSession, session2);
-        when(sessionRepository.findAll()).thenReturn(sessions);
+    void findPage_ShouldRequestSliceOrderedByDateThenId() {
+        SessionDto first = sessionDto(1L);
+        Slice<SessionDto> slice = new SliceImpl<>(Arrays.asList(first));
+        when(sessionRepository.findDtoPage(PageRequest.of(2, 10, Sort.by("date", "id")))).thenReturn(slice);
+        when(sessionRepository.findParticipants(Arrays.asList(1L))).thenReturn(Arrays.asList(participant(1L, 10L)));
 
-        // When
-        List<Session> result = sessionService.findAll();
+        Slice<SessionDto> result = sessionService.findPage(2, 10);
 
-        // Then
-        assertThat(result).hasSize(2);
-        assertThat(result.get(0).getName()).isEqualTo("Yoga Session");
-        assertThat(result.get(1).getName()).isEqualTo("Pilates Session");
-        verify(sessionRepository, times(1)).findAll();
+        assertThat(result).isSameAs(slice);
+        assertThat(first.getUsers()).containsExactly(10L);
     }
 
     @Test
-    void findAll_ShouldReturnEmptyList_WhenNoSessions() {
-        // Given
-        when(sessionRepository.findAll()).thenReturn(new ArrayList<>());
+    void findPage_WhenEmpty_ShouldNotQueryParticipants() {
+        when(sessionRepository.findDtoPage(any())).thenReturn(new SliceImpl<>(new ArrayList<>()));
 
-        // When
-        List<Session> result = sessionService.findAll();
+        Slice<SessionDto> result = sessionService.findPage(5, 10);
 
-        // Then
-        assertThat(result).isEmpty();
-        verify(sessionRepository, times(1)).findAll();
+        assertThat(result.getContent()).isEmpty();
+        verify(sessionRepository, never()).findParticipants(any());
+    }
+
+    @Test
+    void findAfter_WithoutCursor_ShouldReturnFirstPage() {
+        Slice<SessionDto> slice = new SliceImpl<>(Arrays.asList(sessionDto(1L)));
+        when(sessionRepository.findDtoPage(PageRequest.of(0, 10, Sort.by("date", "id")))).thenReturn(slice);
+
+        Slice<SessionDto> result = sessionService.findAfter(null, 10);
+
+        assertThat(result).isSameAs(slice);
+        verify(sessionRepository, never()).findDtosAfter(any(), anyLong(), any());
+    }
+
+    @Test
+    void findAfter_WithCursor_ShouldSeekPastCursor() {
+        Slice<SessionDto> slice = new SliceImpl<>(Arrays.asList(sessionDto(6L)));
+        when(sessionRepository.findDtosAfter(new Date(1000L), 5L, PageRequest.of(0, 10))).thenReturn(slice);
+
+        Slice<SessionDto> result = sessionService.findAfter(new SessionCursor(1000L, 5L), 10);
+
+        assertThat(result).isSameAs(slice);
+        verify(sessionRepository).findParticipants(Arrays.asList(6L));
+    }
+
+    @Test
+    void getDtoById_ShouldFillParticipantIds() {
+        SessionDto dto = sessionDto(1L);
+        when(sessionRepository.findDtoById(1L)).thenReturn(Optional.of(dto));
+        when(sessionRepository.findParticipants(Arrays.asList(1L))).thenReturn(Arrays.asList(participant(1L, 10L)));
+
+        SessionDto result = sessionService.getDtoById(1L);
+
+        assertThat(result).isSameAs(dto);
+        assertThat(result.getUsers()).containsExactly(10L);
+        verify(sessionRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void getDtoById_ShouldReturnNull_WhenNotExists() {
+        when(sessionRepository.findDtoById(99L)).thenReturn(Optional.empty());
+
+        assertThat(sessionService.getDtoById(99L)).isNull();
+        verify(sessionRepository, never()).findParticipants(any());
     }
 
     @Test
@@ -182,98 +226,361 @@ class SessionServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo(1L);
         assertThat(result.getName()).isEqualTo("Updated Yoga Session");
-        verify(sessionRepository, times(1)).save(mockSession);
+        InOrder inOrder = inOrder(sessionRepository);
+        inOrder.verify(sessionRepository).lockSession(1L);
+        inOrder.verify(sessionRepository).save(mockSession);
+        inOrder.verify(sessionRepository).recountSeats(1L);
+    }
+
+    @Test
+    void update_ShouldPromoteOneWaitingUserPerFreeSeat() {
+        // Given
+        mockSession.setCapacity(3);
+        mockSession.getUsers().add(mockUser);
+        when(sessionRepository.save(any(Session.class))).thenReturn(mockSession);
+        when(waitlistRepository.findFirstBySessionIdOrderByIdAsc(1L))
+                .thenReturn(Optional.of(waitlistEntry(10L, 2L)), Optional.of(waitlistEntry(11L, 3L)),
+                        Optional.of(waitlistEntry(12L, 4L)));
+        when(sessionRepository.reserveSeat(1L)).thenReturn(1);
+
+        // When
+        sessionService.update(1L, mockSession);
+
+        // Then
+        verify(sessionRepository, times(1)).addParticipant(1L, 2L);
+        verify(sessionRepository, times(1)).addParticipant(1L, 3L);
+        verify(sessionRepository, never()).addParticipant(1L, 4L);
+        verify(waitlistRepository, times(2)).findFirstBySessionIdOrderByIdAsc(1L);
+        verify(waitlistRepository, times(2)).delete(any(WaitlistEntry.class));
+    }
+
+    @Test
+    void update_WithoutCapacity_ShouldPromoteTheWholeWaitlist() {
+        // Given
+        when(sessionRepository.save(any(Session.class))).thenReturn(mockSession);
+        when(waitlistRepository.countBySessionId(1L)).thenReturn(2L);
+        when(waitlistRepository.findFirstBySessionIdOrderByIdAsc(1L))
+                .thenReturn(Optional.of(waitlistEntry(10L, 2L)), Optional.of(waitlistEntry(11L, 3L)));
+        when(sessionRepository.reserveSeat(1L)).thenReturn(1);
+
+        // When
+        sessionService.update(1L, mockSession);
+
+        // Then
+        verify(sessionRepository, times(1)).addParticipant(1L, 2L);
+        verify(sessionRepository, times(1)).addParticipant(1L, 3L);
+        verify(waitlistRepository, times(2)).delete(any(WaitlistEntry.class));
+    }
+
+    @Test
+    void update_WithCapacityBelowParticipants_ShouldThrowBadRequest() {
+        // Given
+        mockSession.setCapacity(1);
+        mockSession.getUsers().add(mockUser);
+        mockSession.getUsers().add(User.builder()
+                .id(2L)
+                .email("other@test.com")
+                .lastName("Roe")
+                .firstName("Jane")
+                .password("password123")
+                .admin(false)
+                .build());
+
+        // When & Then
+        assertThatThrownBy(() -> sessionService.update(1L, mockSession))
+                .isInstanceOf(BadRequestException.class);
+        verify(sessionRepository, never()).save(any(Session.class));
     }
 
     @Test
     void participate_ShouldAddUserToSession() {
         // Given
-        when(sessionRepository.findById(1L)).thenReturn(Optional.of(mockSession));
-        when(userRepository.findById(1L)).thenReturn(Optional.of(mockUser));
+        when(sessionRepository.lockSession(1L)).thenReturn(Optional.of(1L));
+        when(sessionRepository.reserveSeat(1L)).thenReturn(1);
+        when(sessionRepository.addParticipant(1L, 1L)).thenReturn(1);
 
         // When
-        sessionService.participate(1L, 1L);
+        ParticipationStatus status = sessionService.participate(1L, 1L);
 
         // Then
-        assertThat(mockSession.getUsers()).contains(mockUser);
-        verify(sessionRepository, times(1)).save(mockSession);
+        assertThat(status).isEqualTo(ParticipationStatus.CONFIRMED);
+        verify(sessionRepository, times(1)).reserveSeat(1L);
+        verify(sessionRepository, times(1)).addParticipant(1L, 1L);
+        verify(sessionRepository, never()).findById(anyLong());
+        verify(sessionRepository, never()).save(any());
     }
 
     @Test
     void participate_ShouldThrowNotFoundException_WhenSessionNotFound() {
         // Given
-        when(sessionRepository.findById(anyLong())).thenReturn(Optional.empty());
-        when(userRepository.findById(1L)).thenReturn(Optional.of(mockUser));
+        when(sessionRepository.lockSession(999L)).thenReturn(Optional.empty());
 
         // When & Then
         assertThatThrownBy(() -> sessionService.participate(999L, 1L))
                 .isInstanceOf(NotFoundException.class);
-        
+
+        verify(sessionRepository, never()).addParticipant(anyLong(), anyLong());
         verify(sessionRepository, never()).save(any());
     }
 
     @Test
     void participate_ShouldThrowNotFoundException_WhenUserNotFound() {
         // Given
-        when(sessionRepository.findById(1L)).thenReturn(Optional.of(mockSession));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(sessionRepository.lockSession(1L)).thenReturn(Optional.of(1L));
+        when(sessionRepository.reserveSeat(1L)).thenReturn(1);
+        when(sessionRepository.addParticipant(1L, 999L)).thenThrow(new DataIntegrityViolationException("FK"));
+        when(userRepository.existsById(999L)).thenReturn(false);
 
         // When & Then
         assertThatThrownBy(() -> sessionService.participate(1L, 999L))
                 .isInstanceOf(NotFoundException.class);
-        
+
         verify(sessionRepository, never()).save(any());
     }
 
     @Test
     void participate_ShouldThrowBadRequestException_WhenUserAlreadyParticipating() {
         // Given
-        mockSession.getUsers().add(mockUser);
-        when(sessionRepository.findById(1L)).thenReturn(Optional.of(mockSession));
-        when(userRepository.findById(1L)).thenReturn(Optional.of(mockUser));
+        when(sessionRepository.lockSession(1L)).thenReturn(Optional.of(1L));
+        when(sessionRepository.reserveSeat(1L)).thenReturn(1);
+        when(sessionRepository.addParticipant(1L, 1L)).thenThrow(new DataIntegrityViolationException("UK"));
+        when(userRepository.existsById(1L)).thenReturn(true);
 
         // When & Then
         assertThatThrownBy(() -> sessionService.participate(1L, 1L))
                 .isInstanceOf(BadRequestException.class);
-        
+
         verify(sessionRepository, never()).save(any());
     }
 
+    @Test
+    void participate_ShouldThrowSessionFullException_WhenNoSeatLeft() {
+        // Given
+        when(sessionRepository.lockSession(1L)).thenReturn(Optional.of(1L));
+        when(sessionRepository.reserveSeat(1L)).thenReturn(0);
+        when(sessionRepository.lockWaitlist(1L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> sessionService.participate(1L, 1L))
+                .isInstanceOf(SessionFullException.class);
+
+        verify(sessionRepository, never()).addParticipant(anyLong(), anyLong());
+        verify(waitlistRepository, never()).save(any());
+    }
+
+    @Test
+    void participate_ShouldLockTheSessionBeforeReservingASeat() {
+        // Given
+        when(sessionRepository.lockSession(1L)).thenReturn(Optional.of(1L));
+        when(sessionRepository.reserveSeat(1L)).thenReturn(1);
+
+        // When
+        ParticipationStatus status = sessionService.participate(1L, 1L);
+
+        // Then
+        assertThat(status).isEqualTo(ParticipationStatus.CONFIRMED);
+        InOrder inOrder = inOrder(sessionRepository);
+        inOrder.verify(sessionRepository).lockSession(1L);
+        inOrder.verify(sessionRepository).reserveSeat(1L);
+        inOrder.verify(sessionRepository).addParticipant(1L, 1L);
+    }
+
+    @Test
+    void participate_ShouldQueueUser_WhenFullAndWaitlistEnabled() {
+        // Given
+        when(sessionRepository.lockSession(1L)).thenReturn(Optional.of(1L));
+        when(sessionRepository.reserveSeat(1L)).thenReturn(0);
+        when(sessionRepository.lockWaitlist(1L)).thenReturn(Optional.of(1L));
+        when(sessionRepository.countParticipant(1L, 2L)).thenReturn(0L);
+        when(waitlistRepository.existsBySessionIdAndUserId(1L, 2L)).thenReturn(false);
+        when(userRepository.existsById(2L)).thenReturn(true);
+
+        // When
+        ParticipationStatus status = sessionService.participate(1L, 2L);
+
+        // Then
+        assertThat(status).isEqualTo(ParticipationStatus.WAITLISTED);
+        verify(waitlistRepository, times(1)).save(argThat(entry -> entry.getSessionId().equals(1L) && entry.getUserId().equals(2L)));
+        verify(sessionRepository, never()).addParticipant(anyLong(), anyLong());
+    }
+
+    @Test
+    void participate_ShouldThrowBadRequestException_WhenAlreadyWaiting() {
+        // Given
+        when(sessionRepository.lockSession(1L)).thenReturn(Optional.of(1L));
+        when(sessionRepository.reserveSeat(1L)).thenReturn(0);
+        when(sessionRepository.lockWaitlist(1L)).thenReturn(Optional.of(1L));
+        when(sessionRepository.countParticipant(1L, 2L)).thenReturn(0L);
+        when(waitlistRepository.existsBySessionIdAndUserId(1L, 2L)).thenReturn(true);
+
+        // When & Then
+        assertThatThrownBy(() -> sessionService.participate(1L, 2L))
+                .isInstanceOf(BadRequestException.class);
+
+        verify(waitlistRepository, never()).save(any());
+    }
+
+    @Test
+    void participate_ShouldThrowBadRequestException_WhenFullAndAlreadyParticipating() {
+        // Given
+        when(sessionRepository.lockSession(1L)).thenReturn(Optional.of(1L));
+        when(sessionRepository.reserveSeat(1L)).thenReturn(0);
+        when(sessionRepository.lockWaitlist(1L)).thenReturn(Optional.of(1L));
+        when(sessionRepository.countParticipant(1L, 1L)).thenReturn(1L);
+
+        // When & Then
+        assertThatThrownBy(() -> sessionService.participate(1L, 1L))
+                .isInstanceOf(BadRequestException.class);
+
+        verify(waitlistRepository, never()).save(any());
+    }
+
+    @Test
+    void participate_ShouldThrowNotFoundException_WhenWaitingUserNotFound() {
+        // Given
+        when(sessionRepository.lockSession(1L)).thenReturn(Optional.of(1L));
+        when(sessionRepository.reserveSeat(1L)).thenReturn(0);
+        when(sessionRepository.lockWaitlist(1L)).thenReturn(Optional.of(1L));
+        when(sessionRepository.countParticipant(1L, 999L)).thenReturn(0L);
+        when(waitlistRepository.existsBySessionIdAndUserId(1L, 999L)).thenReturn(false);
+        when(userRepository.existsById(999L)).thenReturn(false);
+
+        // When & Then
+        assertThatThrownBy(() -> sessionService.participate(1L, 999L))
+                .isInstanceOf(NotFoundException.class);
+
+        verify(waitlistRepository, never()).save(any());
+    }
+
     @Test
     void noLongerParticipate_ShouldRemoveUserFromSession() {
         // Given
-        mockSession.getUsers().add(mockUser);
-        when(sessionRepository.findById(1L)).thenReturn(Optional.of(mockSession));
+        when(sessionRepository.lockSession(1L)).thenReturn(Optional.of(1L));
+        when(sessionRepository.removeParticipant(1L, 1L)).thenReturn(1);
+        when(sessionRepository.releaseSeatWithoutWaitlist(1L)).thenReturn(1);
 
         // When
         sessionService.noLongerParticipate(1L, 1L);
 
         // Then
-        assertThat(mockSession.getUsers()).doesNotContain(mockUser);
-        verify(sessionRepository, times(1)).save(mockSession);
+        verify(sessionRepository, times(1)).removeParticipant(1L, 1L);
+        verify(sessionRepository, times(1)).releaseSeatWithoutWaitlist(1L);
+        verify(sessionRepository, never()).lockWaitlist(anyLong());
+        verify(sessionRepository, never()).existsById(anyLong());
+        verify(sessionRepository, never()).save(any());
+    }
+
+    @Test
+    void noLongerParticipate_ShouldHandSeatOverToHeadOfWaitlist() {
+        // Given
+        when(sessionRepository.lockSession(1L)).thenReturn(Optional.of(1L));
+        WaitlistEntry head = waitlistEntry(10L, 2L);
+        when(sessionRepository.removeParticipant(1L, 1L)).thenReturn(1);
+        when(sessionRepository.releaseSeatWithoutWaitlist(1L)).thenReturn(0);
+        when(sessionRepository.lockWaitlist(1L)).thenReturn(Optional.of(1L));
+        when(waitlistRepository.findFirstBySessionIdOrderByIdAsc(1L)).thenReturn(Optional.of(head));
+
+        // When
+        sessionService.noLongerParticipate(1L, 1L);
+
+        // Then
+        verify(sessionRepository, times(1)).addParticipant(1L, 2L);
+        verify(waitlistRepository, times(1)).delete(head);
+        verify(sessionRepository, never()).releaseSeat(anyLong());
+        verify(sessionRepository, never()).reserveSeat(anyLong());
+    }
+
+    @Test
+    void noLongerParticipate_ShouldReleaseSeat_WhenWaitlistIsEmpty() {
+        // Given
+        when(sessionRepository.lockSession(1L)).thenReturn(Optional.of(1L));
+        when(sessionRepository.removeParticipant(1L, 1L)).thenReturn(1);
+        when(sessionRepository.releaseSeatWithoutWaitlist(1L)).thenReturn(0);
+        when(sessionRepository.lockWaitlist(1L)).thenReturn(Optional.of(1L));
+        when(waitlistRepository.findFirstBySessionIdOrderByIdAsc(1L)).thenReturn(Optional.empty());
+
+        // When
+        sessionService.noLongerParticipate(1L, 1L);
+
+        // Then
+        verify(sessionRepository, times(1)).releaseSeat(1L);
+        verify(sessionRepository, never()).addParticipant(anyLong(), anyLong());
+    }
+
+    @Test
+    void noLongerParticipate_ShouldLeaveWaitlist_WhenUserIsWaiting() {
+        // Given
+        when(sessionRepository.lockSession(1L)).thenReturn(Optional.of(1L));
+        when(sessionRepository.removeParticipant(1L, 2L)).thenReturn(0);
+        when(waitlistRepository.removeEntry(1L, 2L)).thenReturn(1);
+
+        // When
+        sessionService.noLongerParticipate(1L, 2L);
+
+        // Then
+        verify(sessionRepository, never()).releaseSeatWithoutWaitlist(anyLong());
+        verify(sessionRepository, never()).releaseSeat(anyLong());
+        verify(sessionRepository, never()).existsById(anyLong());
     }
 
     @Test
     void noLongerParticipate_ShouldThrowNotFoundException_WhenSessionNotFound() {
         // Given
-        when(sessionRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(sessionRepository.lockSession(999L)).thenReturn(Optional.empty());
 
         // When & Then
         assertThatThrownBy(() -> sessionService.noLongerParticipate(999L, 1L))
                 .isInstanceOf(NotFoundException.class);
-        
+
         verify(sessionRepository, never()).save(any());
     }
 
     @Test
     void noLongerParticipate_ShouldThrowBadRequestException_WhenUserNotParticipating() {
         // Given
-        when(sessionRepository.findById(1L)).thenReturn(Optional.of(mockSession));
+        when(sessionRepository.lockSession(1L)).thenReturn(Optional.of(1L));
+        when(sessionRepository.removeParticipant(1L, 1L)).thenReturn(0);
 
         // When & Then
         assertThatThrownBy(() -> sessionService.noLongerParticipate(1L, 1L))
                 .isInstanceOf(BadRequestException.class);
-        
+
         verify(sessionRepository, never()).save(any());
     }
+
+    @Test
+    void getWaitlistPosition_ShouldReturnPosition_WhenWaiting() {
+        when(waitlistRepository.findPosition(1L, 2L)).thenReturn(3L);
+
+        assertThat(sessionService.getWaitlistPosition(1L, 2L)).isEqualTo(3L);
+    }
+
+    @Test
+    void getWaitlistPosition_ShouldReturnNull_WhenNotWaiting() {
+        when(waitlistRepository.findPosition(1L, 2L)).thenReturn(0L);
+
+        assertThat(sessionService.getWaitlistPosition(1L, 2L)).isNull();
+    }
+
+    private static SessionDto sessionDto(Long id) {
+        return new SessionDto(id, "Session " + id, new Date(), 1L, "Description", null, false, null, null);
+    }
+
+    private static WaitlistEntry waitlistEntry(Long id, Long userId) {
+        return WaitlistEntry.builder().id(id).sessionId(1L).userId(userId).build();
+    }
+
+    private static SessionParticipant participant(Long sessionId, Long userId) {
+        return new SessionParticipant() {
+            @Override
+            public Long getSessionId() {
+                return sessionId;
+            }
+
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+        };
+    }
 }
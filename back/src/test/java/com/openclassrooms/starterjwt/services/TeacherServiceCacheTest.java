@@ -0,0 +1,105 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TeacherServiceCacheTest {
+
+    private final TeacherService teacherService;
+    private final TeacherRepository teacherRepository;
+    private final SessionRepository sessionRepository;
+    private final Statistics statistics;
+
+    @Autowired
+    public TeacherServiceCacheTest(TeacherService teacherService,
+                                   TeacherRepository teacherRepository,
+                                   SessionRepository sessionRepository,
+                                   EntityManagerFactory entityManagerFactory) {
+        this.teacherService = teacherService;
+        this.teacherRepository = teacherRepository;
+        this.sessionRepository = sessionRepository;
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private Teacher teacher;
+
+    @BeforeEach
+    void setUp() {
+        teacher = teacherRepository.save(Teacher.builder().lastName("Smith").firstName("Jane").build());
+        teacherService.findAll();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionRepository.deleteAll();
+        teacherRepository.deleteAll();
+    }
+
+    @Test
+    void findById_ShouldBeServedFromSecondLevelCache() {
+        Teacher first = teacherService.findById(teacher.getId());
+        Teacher second = teacherService.findById(teacher.getId());
+
+        assertThat(first.getLastName()).isEqualTo("Smith");
+        assertThat(second.getLastName()).isEqualTo("Smith");
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    void findAll_ShouldBeServedFromQueryCache() {
+        assertThat(teacherService.findAll()).extracting(Teacher::getId).containsExactly(teacher.getId());
+        assertThat(teacherService.findAll()).extracting(Teacher::getId).containsExactly(teacher.getId());
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    void findAll_ShouldBeReloadedAfterTeacherWrite() {
+        Teacher other = teacherRepository.save(Teacher.builder().lastName("Doe").firstName("John").build());
+
+        assertThat(teacherService.findAll()).extracting(Teacher::getId)
+                .containsExactlyInAnyOrder(teacher.getId(), other.getId());
+        assertThat(statistics.getQueryCacheMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    void seatStatements_ShouldNotEvictTeachers() {
+        Session session = sessionRepository.save(Session.builder()
+                .name("Yoga")
+                .description("Cached teacher")
+                .date(new Date())
+                .teacher(teacher)
+                .users(new ArrayList<>())
+                .build());
+        statistics.clear();
+
+        sessionRepository.reserveSeat(session.getId());
+        sessionRepository.releaseSeat(session.getId());
+        teacherService.findById(teacher.getId());
+        teacherService.findAll();
+
+        assertThat(statistics.getSecondLevelCacheMissCount()).isZero();
+        assertThat(statistics.getQueryCacheMissCount()).isZero();
+    }
+}
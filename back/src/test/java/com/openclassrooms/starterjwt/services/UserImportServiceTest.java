@@ -0,0 +1,139 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.response.UserImportResponse;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "oc.app.userImport.batchSize=2")
+@ActiveProfiles("test")
+class UserImportServiceTest {
+
+    private final UserImportService userImportService;
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+
+    @Autowired
+    public UserImportServiceTest(UserImportService userImportService,
+                                 UserRepository userRepository,
+                                 PasswordEncoder passwordEncoder) {
+        this.userImportService = userImportService;
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void importCsv_ShouldInsertValidRowsAcrossBatches() throws IOException {
+        UserImportResponse response = userImportService.importCsv(body(
+                "email,firstName,lastName,password",
+                "first@test.com,First,User,password123",
+                "second@test.com,Second,User,password123",
+                "third@test.com,Third,User,password123"));
+
+        assertThat(response.getImported()).isEqualTo(3);
+        assertThat(response.getFailed()).isZero();
+        assertThat(response.getErrors()).isEmpty();
+
+        User user = userRepository.findByEmail("third@test.com").orElseThrow(IllegalStateException::new);
+        assertThat(user.getId()).isNotNull();
+        assertThat(user.getFirstName()).isEqualTo("Third");
+        assertThat(user.getLastName()).isEqualTo("User");
+        assertThat(user.isAdmin()).isFalse();
+        assertThat(user.getCreatedAt()).isNotNull();
+        assertThat(passwordEncoder.matches("password123", user.getPassword())).isTrue();
+    }
+
+    @Test
+    void importCsv_ShouldReportInvalidRepeatedAndTakenRows() throws IOException {
+        userRepository.save(User.builder()
+                .email("taken@test.com")
+                .firstName("Taken")
+                .lastName("User")
+                .password("password123")
+                .admin(false)
+                .build());
+
+        UserImportResponse response = userImportService.importCsv(body(
+                "email,firstName,lastName,password",
+                "first@test.com,First,User,password123",
+                "not-an-email,Invalid,User,short",
+                "first@test.com,Again,User,password123",
+                "taken@test.com,Taken,User,password123",
+                "second@test.com,Second,User,password123"));
+
+        assertThat(response.getImported()).isEqualTo(2);
+        assertThat(response.getFailed()).isEqualTo(3);
+        assertThat(response.getErrors()).extracting(UserImportResponse.RowError::getRow).containsExactly(2, 3, 4);
+        assertThat(response.getErrors().get(0).getMessages())
+                .hasSize(2)
+                .anyMatch(message -> message.startsWith("email: "))
+                .anyMatch(message -> message.startsWith("password: "));
+        assertThat(response.getErrors().get(1).getMessages()).containsExactly("email: repeated in the file");
+        assertThat(response.getErrors().get(2).getMessages()).containsExactly("email: already taken");
+        assertThat(userRepository.findByEmail("first@test.com").map(User::getFirstName)).contains("First");
+        assertThat(userRepository.findByEmail("taken@test.com").map(User::getPassword)).contains("password123");
+        assertThat(userRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void importNdjson_ShouldInsertValidRows() throws IOException {
+        UserImportResponse response = userImportService.importNdjson(body(
+                "{\"email\":\"first@test.com\",\"firstName\":\"First\",\"lastName\":\"User\",\"password\":\"password123\"}",
+                "{\"email\":\"second@test.com\",\"firstName\":\"Second\",\"lastName\":\"User\"}"));
+
+        assertThat(response.getImported()).isEqualTo(1);
+        assertThat(response.getFailed()).isEqualTo(1);
+        assertThat(response.getErrors().get(0).getRow()).isEqualTo(2);
+        assertThat(response.getErrors().get(0).getEmail()).isEqualTo("second@test.com");
+        assertThat(response.getErrors().get(0).getMessages()).hasSize(1).allMatch(message -> message.startsWith("password: "));
+        assertThat(userRepository.existsByEmail("first@test.com")).isTrue();
+    }
+
+    @Test
+    void importNdjson_WithMalformedRow_ShouldKeepPreviousRowsAndStop() throws IOException {
+        UserImportResponse response = userImportService.importNdjson(body(
+                "{\"email\":\"first@test.com\",\"firstName\":\"First\",\"lastName\":\"User\",\"password\":\"password123\"}",
+                "{\"email\":",
+                "{\"email\":\"second@test.com\",\"firstName\":\"Second\",\"lastName\":\"User\",\"password\":\"password123\"}"));
+
+        assertThat(response.getImported()).isEqualTo(1);
+        assertThat(response.getFailed()).isEqualTo(1);
+        assertThat(response.getErrors().get(0).getRow()).isEqualTo(2);
+        assertThat(response.getErrors().get(0).getMessages().get(0)).startsWith("malformed row, import stopped: ");
+        assertThat(userRepository.existsByEmail("first@test.com")).isTrue();
+        assertThat(userRepository.existsByEmail("second@test.com")).isFalse();
+    }
+
+    @Test
+    void encodePasswords_ShouldKeepTheOrder() {
+        List<String> hashes = userImportService.encodePasswords(Arrays.asList("password1", "password2", "password3"));
+
+        assertThat(hashes).hasSize(3);
+        assertThat(passwordEncoder.matches("password1", hashes.get(0))).isTrue();
+        assertThat(passwordEncoder.matches("password2", hashes.get(1))).isTrue();
+        assertThat(passwordEncoder.matches("password3", hashes.get(2))).isTrue();
+    }
+
+    private static InputStream body(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
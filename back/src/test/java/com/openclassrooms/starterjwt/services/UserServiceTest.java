@@ -1,7 +1,9 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.services.CachingUserDetailsService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,9 +12,15 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -22,6 +30,9 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private CachingUserDetailsService userDetailsService;
+
     @InjectMocks
     private UserService userService;
 
@@ -72,6 +83,7 @@ class UserServiceTest {
         userService.delete(userId);
 
         verify(userRepository, times(1)).deleteById(userId);
+        verify(userDetailsService, times(1)).evictUser(userId);
     }
 
     @Test
@@ -85,4 +97,37 @@ class UserServiceTest {
         verify(userRepository, times(1)).deleteById(userId1);
         verify(userRepository, times(1)).deleteById(userId2);
     }
+
+    @Test
+    void findAllById_ShouldLoadOnceAndKeepRequestedOrderWithoutDuplicates() {
+        User other = User.builder().id(2L).email("other@test.com").lastName("Roe").firstName("Jane").password("password123").build();
+        when(userRepository.findAllById(Arrays.asList(2L, 1L))).thenReturn(Arrays.asList(mockUser, other));
+
+        List<User> result = userService.findAllById(Arrays.asList(2L, 1L, 2L));
+
+        assertThat(result).containsExactly(other, mockUser);
+        verify(userRepository, times(1)).findAllById(any());
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void findAllById_WithUnknownId_ShouldThrowBadRequest() {
+        when(userRepository.findAllById(Arrays.asList(1L, 99L))).thenReturn(Collections.singletonList(mockUser));
+
+        assertThatThrownBy(() -> userService.findAllById(Arrays.asList(1L, 99L)))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void findAllById_WithNullId_ShouldThrowBadRequest() {
+        assertThatThrownBy(() -> userService.findAllById(Arrays.asList(1L, null)))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void findAllById_WithNoIds_ShouldNotQuery() {
+        assertThat(userService.findAllById(new ArrayList<>())).isEmpty();
+        verifyNoInteractions(userRepository);
+    }
 }
@@ -3,7 +3,7 @@ describe('Create Session Page', () => {
 
   beforeEach(() => {
     cy.intercept('GET', '/api/teacher*', { body: teachers }).as('getTeachers');
-    cy.intercept('GET', '/api/session', { body: [] }).as('getSessions');
+    cy.intercept('GET', '/api/session', { body: { content: [], hasNext: false } }).as('getSessions');
     cy.loginAsAdmin();
     cy.contains('Create').click();
     cy.wait('@getTeachers');
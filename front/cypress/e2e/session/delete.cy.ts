@@ -43,7 +43,7 @@ describe('Delete Session', () => {
         updatedAt: new Date()
       }
     ];
-    cy.intercept('GET', '/api/session', { body: sessionsBefore }).as('getSessions');
+    cy.intercept('GET', '/api/session', { body: { content: sessionsBefore, hasNext: false } }).as('getSessions');
 
     cy.intercept('GET', '/api/session/1', {
       body: sessionsBefore[0]
@@ -74,7 +74,7 @@ describe('Delete Session', () => {
     cy.wait('@getSession');
     cy.wait(400);
 
-    cy.intercept('GET', '/api/session', { body: sessionsAfter }).as('getSessionsAfterDelete');
+    cy.intercept('GET', '/api/session', { body: { content: sessionsAfter, hasNext: false } }).as('getSessionsAfterDelete');
 
     cy.get('button span').contains("Delete").click();
     cy.wait('@deleteSession');
@@ -29,8 +29,9 @@ describe('Session Detail - display info and buttons based on role', () => {
 
   function interceptCommon() {
     cy.intercept('GET', '/api/teacher', { body: teachers }).as('getTeachers');
-    cy.intercept('GET', '/api/session', { body: [session] }).as('getSessions');
+    cy.intercept('GET', '/api/session', { body: { content: [session], hasNext: false } }).as('getSessions');
     cy.intercept('GET', '/api/session/1', { body: session }).as('getSession');
+    cy.intercept('GET', '/api/session/1/waitlist/*', { statusCode: 404 }).as('getWaitlistPosition');
   }
 
   it('should display details and Participate button for a non-admin', () => {
@@ -97,8 +98,9 @@ describe('Session Detail - display info and buttons based on role', () => {
       body: { id: 2, username: 'nonAdminUser', admin: false }
     }).as('login');
     cy.intercept('GET', '/api/teacher', { body: teachers }).as('getTeachers');
-    cy.intercept('GET', '/api/session', { body: [sessionNotRegistered] }).as('getSessions');
+    cy.intercept('GET', '/api/session', { body: { content: [sessionNotRegistered], hasNext: false } }).as('getSessions');
     cy.intercept('GET', '/api/session/1', { body: sessionNotRegistered }).as('getSession');
+    cy.intercept('GET', '/api/session/1/waitlist/2', { statusCode: 404 }).as('getWaitlistPosition');
 
     cy.login('nonadmin@studio.com', 'test!1234');
     cy.wait('@getSessions');
@@ -125,6 +127,38 @@ describe('Session Detail - display info and buttons based on role', () => {
     cy.get('button').contains('Participate').should('be.visible');
   });
 
+  it('should put the user on the waitlist of a full session and let them leave it', () => {
+    cy.intercept('POST', '/api/auth/login', {
+      body: { id: 2, username: 'nonAdminUser', admin: false }
+    }).as('login');
+    interceptCommon();
+
+    cy.login('nonadmin@studio.com', 'test!1234');
+    cy.wait('@getSessions');
+
+    cy.contains('Test').parents('mat-card').first().within(() => {
+      cy.get('button').contains("Detail").click();
+    });
+    cy.wait('@getSession');
+
+    cy.intercept('POST', '/api/session/1/participate/2', { statusCode: 202, body: { position: 2 } }).as('participate');
+    cy.intercept('GET', '/api/session/1/waitlist/2', { body: { position: 2 } }).as('getWaitlistPositionAfterParticipate');
+
+    cy.get('button').contains('Participate').click();
+    cy.wait('@participate');
+    cy.contains('Session full, you are number 2 on the waitlist').should('be.visible');
+    cy.wait('@getWaitlistPositionAfterParticipate');
+    cy.contains('Number 2 on the waitlist').should('be.visible');
+
+    cy.intercept('DELETE', '/api/session/1/participate/2', { statusCode: 200 }).as('leaveWaitlist');
+    cy.intercept('GET', '/api/session/1/waitlist/2', { statusCode: 404 }).as('getWaitlistPositionAfterLeaving');
+
+    cy.get('button').contains('Leave waitlist').click();
+    cy.wait('@leaveWaitlist');
+    cy.wait('@getWaitlistPositionAfterLeaving');
+    cy.get('button').contains('Participate').should('be.visible');
+  });
+
   it('should allow going back with the back button', () => {
     cy.intercept('POST', '/api/auth/login', {
       statusCode: 200,
@@ -138,16 +172,19 @@ describe('Session Detail - display info and buttons based on role', () => {
     }).as('login');
     cy.intercept('GET', '/api/session', {
       statusCode: 200,
-      body: [{
-        id: 1,
-        name: "Test",
-        date: new Date(),
-        teacher_id: 1,
-        description: "Test description",
-        users: [],
-        createdAt: new Date(),
-        updatedAt: new Date()
-      }]
+      body: {
+        content: [{
+          id: 1,
+          name: "Test",
+          date: new Date(),
+          teacher_id: 1,
+          description: "Test description",
+          users: [],
+          createdAt: new Date(),
+          updatedAt: new Date()
+        }],
+        hasNext: false
+      }
     }).as('sessions');
     cy.intercept('GET', '/api/session/1', {
       statusCode: 200,
@@ -22,7 +22,9 @@ describe('Session editing by admin', () => {
     date: new Date(),
     teacher_id: 1,
     description: "Gentle session",
-    users: [],
+    users: [2],
+    capacity: 10,
+    waitlistEnabled: true,
     createdAt: new Date(),
     updatedAt: new Date()
   };
@@ -55,7 +57,7 @@ describe('Session editing by admin', () => {
     }).as('me');
 
     cy.intercept('GET', '/api/teacher', { body: teachers }).as('getTeachers');
-    cy.intercept('GET', '/api/session', { body: [sessionBefore] }).as('getSessions');
+    cy.intercept('GET', '/api/session', { body: { content: [sessionBefore], hasNext: false } }).as('getSessions');
     cy.intercept('GET', '/api/session/1', { body: sessionBefore }).as('getSessionDetail');
   });
 
@@ -76,10 +78,15 @@ describe('Session editing by admin', () => {
       body: sessionAfter
     }).as('updateSession');
 
-    cy.intercept('GET', '/api/session', { body: [sessionAfter] }).as('getSessionsAfterUpdate');
+    cy.intercept('GET', '/api/session', { body: { content: [sessionAfter], hasNext: false } }).as('getSessionsAfterUpdate');
 
     cy.get('button[type=submit]').click();
-    cy.wait('@updateSession');
+    cy.wait('@updateSession').its('request.body').should((body) => {
+      expect(body.name).to.equal('Modified Yoga');
+      expect(body.users).to.deep.equal([2]);
+      expect(body.capacity).to.equal(10);
+      expect(body.waitlistEnabled).to.equal(true);
+    });
     cy.wait('@getSessionsAfterUpdate');
 
     cy.url().should('include', '/sessions');
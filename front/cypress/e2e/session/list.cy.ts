@@ -41,7 +41,7 @@ describe('Session list', () => {
 
   it('should display the list of sessions for an admin', () => {
     cy.intercept('GET', '/api/teacher', { body: teachers }).as('getTeachers');
-    cy.intercept('GET', '/api/session', { body: sessions }).as('getSessions');
+    cy.intercept('GET', '/api/session', { body: { content: sessions, hasNext: false } }).as('getSessions');
     cy.loginAsAdmin();
     cy.wait('@getSessions');
     cy.wait(400);
@@ -51,11 +51,30 @@ describe('Session list', () => {
 
   it('should display the list of sessions for a non-admin', () => {
     cy.intercept('GET', '/api/teacher', { body: teachers }).as('getTeachers');
-    cy.intercept('GET', '/api/session', { body: sessions }).as('getSessions');
+    cy.intercept('GET', '/api/session', { body: { content: sessions, hasNext: false } }).as('getSessions');
     cy.loginAsUser();
     cy.wait('@getSessions');
     cy.wait(400);
     cy.contains('Morning Yoga').should('be.visible');
     cy.contains('Evening Pilates').should('be.visible');
   });
+
+  it('should load the next page of sessions on demand', () => {
+    cy.intercept('GET', '/api/teacher', { body: teachers }).as('getTeachers');
+    cy.intercept('GET', '/api/session', {
+      body: { content: [sessions[0]], hasNext: true, nextCursor: 'next-page' }
+    }).as('getSessions');
+    cy.intercept({ method: 'GET', pathname: '/api/session', query: { cursor: 'next-page' } }, {
+      body: { content: [sessions[1]], hasNext: false }
+    }).as('getNextSessions');
+    cy.loginAsUser();
+    cy.wait('@getSessions');
+    cy.contains('Morning Yoga').should('be.visible');
+    cy.contains('Evening Pilates').should('not.exist');
+
+    cy.contains('button', 'Load more').click();
+    cy.wait('@getNextSessions');
+    cy.contains('Evening Pilates').should('be.visible');
+    cy.contains('button', 'Load more').should('not.exist');
+  });
 });
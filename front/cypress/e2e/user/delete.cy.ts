@@ -23,7 +23,7 @@ describe('User deletion', () => {
   beforeEach(() => {
     cy.intercept('GET', '/api/session', {
       statusCode: 200,
-      body: [fakeSession]
+      body: { content: [fakeSession], hasNext: false }
     }).as('getSessions');
 
     cy.intercept('GET', '/api/user/2', {
@@ -25,7 +25,7 @@ describe('Existing User Profile', () => {
       }
     }).as('getUser');
 
-    cy.intercept('GET', '/api/session', { body: [] }).as('getSessions');
+    cy.intercept('GET', '/api/session', { body: { content: [], hasNext: false } }).as('getSessions');
   });
 
   it('should display user information on /me page', () => {
@@ -103,7 +103,7 @@ describe('Existing User Profile', () => {
       }
     }).as('getUserAdmin');
 
-    cy.intercept('GET', '/api/session', { body: [] }).as('getSessions');
+    cy.intercept('GET', '/api/session', { body: { content: [], hasNext: false } }).as('getSessions');
     cy.visit('/login');
     cy.get('input[formControlName=email]').type('admin@example.com');
     cy.get('input[formControlName=password]').type('motdepasse123');
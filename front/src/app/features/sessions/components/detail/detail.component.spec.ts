@@ -9,7 +9,7 @@ import { DetailComponent } from './detail.component';
 import { SessionApiService } from '../../services/session-api.service';
 import { TeacherService } from '../../../../services/teacher.service';
 import { ActivatedRoute, Router } from '@angular/router';
-import { of } from 'rxjs';
+import { of, throwError } from 'rxjs';
 import { Session } from '../../interfaces/session.interface';
 import { MatCardModule } from '@angular/material/card';
 import { MatIconModule } from '@angular/material/icon';
@@ -102,13 +102,45 @@ describe('DetailComponent', () => {
   });
 
   it('should participate in a session and fetch session again', () => {
-    const participateSpy = jest.spyOn(sessionApiService, 'participate').mockReturnValue(of(undefined));
+    const participateSpy = jest.spyOn(sessionApiService, 'participate').mockReturnValue(of(null));
     const fetchSessionSpy = jest.spyOn(component as any, 'fetchSession').mockImplementation();
+    const snackBarSpy = jest.spyOn(matSnackBar, 'open');
 
     component.participate();
 
     expect(participateSpy).toHaveBeenCalledWith('1', '1');
     expect(fetchSessionSpy).toHaveBeenCalled();
+    expect(snackBarSpy).not.toHaveBeenCalled();
+  });
+
+  it('should tell the user their position when the session is full', () => {
+    jest.spyOn(sessionApiService, 'participate').mockReturnValue(of({ position: 2 }));
+    const fetchSessionSpy = jest.spyOn(component as any, 'fetchSession').mockImplementation();
+    const snackBarSpy = jest.spyOn(matSnackBar, 'open');
+
+    component.participate();
+
+    expect(snackBarSpy).toHaveBeenCalledWith('Session full, you are number 2 on the waitlist', 'Close', { duration: 3000 });
+    expect(fetchSessionSpy).toHaveBeenCalled();
+  });
+
+  it('should show the waitlist position of a waiting user', () => {
+    component.isAdmin = false;
+    const waitlistSpy = jest.spyOn(sessionApiService, 'waitlistPosition').mockReturnValue(of({ position: 3 }));
+
+    (component as any).fetchSession();
+
+    expect(waitlistSpy).toHaveBeenCalledWith('1', '1');
+    expect(component.waitlistPosition).toBe(3);
+  });
+
+  it('should not show a waitlist position to a user who is not waiting', () => {
+    component.isAdmin = false;
+    jest.spyOn(sessionApiService, 'waitlistPosition').mockReturnValue(throwError(() => ({ status: 404 })));
+
+    (component as any).fetchSession();
+
+    expect(component.waitlistPosition).toBeNull();
   });
 
   it('should un-participate from a session and fetch session again', () => {
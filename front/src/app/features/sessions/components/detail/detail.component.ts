@@ -2,10 +2,12 @@ import { Component, OnInit } from '@angular/core';
 import { FormBuilder } from '@angular/forms';
 import { MatSnackBar } from '@angular/material/snack-bar';
 import { ActivatedRoute, Router } from '@angular/router';
+import { catchError, of } from 'rxjs';
 import { Teacher } from '../../../../interfaces/teacher.interface';
 import { SessionService } from '../../../../services/session.service';
 import { TeacherService } from '../../../../services/teacher.service';
 import { Session } from '../../interfaces/session.interface';
+import { Waitlist } from '../../interfaces/waitlist.interface';
 import { SessionApiService } from '../../services/session-api.service';
 
 @Component({
@@ -18,6 +20,7 @@ export class DetailComponent implements OnInit {
   public teacher: Teacher | undefined;
 
   public isParticipate = false;
+  public waitlistPosition: number | null = null;
   public isAdmin = false;
 
   public sessionId: string;
@@ -55,7 +58,14 @@ export class DetailComponent implements OnInit {
   }
 
   public participate(): void {
-    this.sessionApiService.participate(this.sessionId, this.userId).subscribe(_ => this.fetchSession());
+    this.sessionApiService
+      .participate(this.sessionId, this.userId)
+      .subscribe((waitlist: Waitlist | null) => {
+        if (waitlist) {
+          this.matSnackBar.open(`Session full, you are number ${waitlist.position} on the waitlist`, 'Close', { duration: 3000 });
+        }
+        this.fetchSession();
+      });
   }
 
   public unParticipate(): void {
@@ -68,10 +78,23 @@ export class DetailComponent implements OnInit {
       .subscribe((session: Session) => {
         this.session = session;
         this.isParticipate = session.users.some(u => u === this.sessionService.sessionInformation!.id);
+        this.fetchWaitlistPosition();
         this.teacherService
           .detail(session.teacher_id.toString())
           .subscribe((teacher: Teacher) => this.teacher = teacher);
       });
   }
 
+  private fetchWaitlistPosition(): void {
+    if (this.isAdmin || this.isParticipate) {
+      this.waitlistPosition = null;
+      return;
+    }
+    // 404 when the user is not waiting
+    this.sessionApiService
+      .waitlistPosition(this.sessionId, this.userId)
+      .pipe(catchError(() => of(null)))
+      .subscribe((waitlist: Waitlist | null) => this.waitlistPosition = waitlist ? waitlist.position : null);
+  }
+
 }
@@ -2,6 +2,7 @@ import { HttpClientModule } from '@angular/common/http';
 import { ComponentFixture, TestBed } from '@angular/core/testing';
 import {  FormBuilder, ReactiveFormsModule } from '@angular/forms';
 import { MatCardModule } from '@angular/material/card';
+import { MatCheckboxModule } from '@angular/material/checkbox';
 import { MatFormFieldModule } from '@angular/material/form-field';
 import { MatIconModule } from '@angular/material/icon';
 import { MatInputModule } from '@angular/material/input';
@@ -49,6 +50,7 @@ describe('FormComponent', () => {
         RouterTestingModule,
         HttpClientModule,
         MatCardModule,
+        MatCheckboxModule,
         MatIconModule,
         MatFormFieldModule,
         MatInputModule,
@@ -98,6 +100,24 @@ describe('FormComponent', () => {
     expect(component.sessionForm?.get('name')?.value).toBe(mockSession.name);
   });
 
+  it('should send back the participants, capacity and waitlist of the session on update', () => {
+    const session: Session = { ...mockSession, users: [2, 3], capacity: 10, waitlistEnabled: true };
+    jest.spyOn(router, 'url', 'get').mockReturnValue('/sessions/update/1');
+    jest.spyOn(route.snapshot.paramMap, 'get').mockReturnValue('1');
+    jest.spyOn(sessionApiService, 'detail').mockReturnValue(of(session));
+    const updateSpy = jest.spyOn(sessionApiService, 'update').mockReturnValue(of(session));
+    jest.spyOn(router, 'navigate').mockImplementation(async () => true);
+
+    component.ngOnInit();
+    component.submit();
+
+    expect(updateSpy).toHaveBeenCalledWith('1', expect.objectContaining({
+      users: [2, 3],
+      capacity: 10,
+      waitlistEnabled: true
+    }));
+  });
+
   it('should create session and exit', () => {
     component.onUpdate = false;
     component.sessionForm = new FormBuilder().group({
@@ -18,6 +18,7 @@ export class FormComponent implements OnInit {
   public sessionForm: FormGroup | undefined;
   public teachers$ = this.teacherService.all();
   private id: string | undefined;
+  private users: number[] = [];
 
   constructor(
     private route: ActivatedRoute,
@@ -47,7 +48,7 @@ export class FormComponent implements OnInit {
   }
 
   public submit(): void {
-    const session = this.sessionForm?.value as Session;
+    const session = { ...this.sessionForm?.value, users: this.users } as Session;
 
     if (!this.onUpdate) {
       this.sessionApiService
@@ -61,6 +62,7 @@ export class FormComponent implements OnInit {
   }
 
   private initForm(session?: Session): void {
+    this.users = session ? session.users : [];
     this.sessionForm = this.fb.group({
       name: [
         session ? session.name : '',
@@ -81,6 +83,13 @@ export class FormComponent implements OnInit {
           Validators.max(2000)
         ]
       ],
+      capacity: [
+        session?.capacity ?? null,
+        [Validators.min(1)]
+      ],
+      waitlistEnabled: [
+        session?.waitlistEnabled ?? false
+      ],
     });
   }
 
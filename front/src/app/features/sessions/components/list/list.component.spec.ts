@@ -3,7 +3,10 @@ import { ComponentFixture, TestBed } from '@angular/core/testing';
 import { MatCardModule } from '@angular/material/card';
 import { MatIconModule } from '@angular/material/icon';
 import { expect } from '@jest/globals';
+import { of } from 'rxjs';
 import { SessionService } from 'src/app/services/session.service';
+import { Session } from '../../interfaces/session.interface';
+import { SessionApiService } from '../../services/session-api.service';
 
 import { ListComponent } from './list.component';
 
@@ -17,11 +20,30 @@ describe('ListComponent', () => {
     }
   }
 
+  const session = (id: number): Session => ({
+    id,
+    name: `Session ${id}`,
+    description: 'Description',
+    date: new Date('2023-12-01'),
+    teacher_id: 1,
+    users: []
+  });
+
+  const mockSessionApiService = {
+    page: jest.fn()
+  };
+
   beforeEach(async () => {
+    mockSessionApiService.page.mockReset();
+    mockSessionApiService.page.mockReturnValueOnce(of({ content: [session(1)], hasNext: true, nextCursor: 'cursor' }));
+
     await TestBed.configureTestingModule({
       declarations: [ListComponent],
       imports: [HttpClientModule, MatCardModule, MatIconModule],
-      providers: [{ provide: SessionService, useValue: mockSessionService }]
+      providers: [
+        { provide: SessionService, useValue: mockSessionService },
+        { provide: SessionApiService, useValue: mockSessionApiService }
+      ]
     })
       .compileComponents();
 
@@ -33,4 +55,20 @@ describe('ListComponent', () => {
   it('should create', () => {
     expect(component).toBeTruthy();
   });
+
+  it('should load the first page', () => {
+    expect(mockSessionApiService.page).toHaveBeenCalledWith(undefined);
+    expect(component.sessions).toEqual([session(1)]);
+    expect(component.nextCursor).toBe('cursor');
+  });
+
+  it('should append the next page and stop after the last one', () => {
+    mockSessionApiService.page.mockReturnValueOnce(of({ content: [session(2)], hasNext: false }));
+
+    component.loadMore();
+
+    expect(mockSessionApiService.page).toHaveBeenLastCalledWith('cursor');
+    expect(component.sessions).toEqual([session(1), session(2)]);
+    expect(component.nextCursor).toBeUndefined();
+  });
 });
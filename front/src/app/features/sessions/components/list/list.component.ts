@@ -1,8 +1,8 @@
-import { Component } from '@angular/core';
-import { Observable } from 'rxjs';
+import { Component, OnInit } from '@angular/core';
 import { SessionInformation } from '../../../../interfaces/sessionInformation.interface';
 import { SessionService } from '../../../../services/session.service';
 import { Session } from '../../interfaces/session.interface';
+import { SessionPage } from '../../interfaces/sessionPage.interface';
 import { SessionApiService } from '../../services/session-api.service';
 
 @Component({
@@ -10,16 +10,28 @@ import { SessionApiService } from '../../services/session-api.service';
   templateUrl: './list.component.html',
   styleUrls: ['./list.component.scss']
 })
-export class ListComponent {
+export class ListComponent implements OnInit {
 
-  public sessions$: Observable<Session[]> = this.sessionApiService.all();
+  public sessions: Session[] = [];
+  public nextCursor?: string;
 
   constructor(
     private sessionService: SessionService,
     private sessionApiService: SessionApiService
   ) { }
 
+  public ngOnInit(): void {
+    this.loadMore();
+  }
+
   get user(): SessionInformation | undefined {
     return this.sessionService.sessionInformation;
   }
+
+  public loadMore(): void {
+    this.sessionApiService.page(this.nextCursor).subscribe((page: SessionPage) => {
+      this.sessions = this.sessions.concat(page.content);
+      this.nextCursor = page.hasNext ? page.nextCursor : undefined;
+    });
+  }
 }
@@ -5,6 +5,8 @@ export interface Session {
   date: Date;
   teacher_id: number;
   users: number[];
+  capacity?: number | null;
+  waitlistEnabled?: boolean;
   createdAt?: Date;
   updatedAt?: Date;
 }
@@ -0,0 +1,8 @@
+import { Session } from './session.interface';
+
+export interface SessionPage {
+  content: Session[];
+  hasNext: boolean;
+  nextCursor?: string;
+  next?: string;
+}
@@ -0,0 +1,3 @@
+export interface Waitlist {
+  position: number;
+}
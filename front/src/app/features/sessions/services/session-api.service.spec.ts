@@ -4,6 +4,7 @@ import { expect } from '@jest/globals';
 
 import { SessionApiService } from './session-api.service';
 import { Session } from '../interfaces/session.interface';
+import { SessionPage } from '../interfaces/sessionPage.interface';
 
 describe('SessionApiService', () => {
   let service: SessionApiService;
@@ -47,16 +48,30 @@ describe('SessionApiService', () => {
     expect(service).toBeTruthy();
   });
 
-  describe('all()', () => {
-    it('should return all sessions', () => {
-      service.all().subscribe(sessions => {
-        expect(sessions).toEqual(mockSessions);
-        expect(sessions.length).toBe(2);
+  describe('page()', () => {
+    it('should return the first page of sessions', () => {
+      const mockPage: SessionPage = { content: mockSessions, hasNext: true, nextCursor: 'cursor' };
+
+      service.page().subscribe(page => {
+        expect(page).toEqual(mockPage);
+        expect(page.content.length).toBe(2);
       });
 
       const req = httpMock.expectOne('api/session');
       expect(req.request.method).toBe('GET');
-      req.flush(mockSessions);
+      req.flush(mockPage);
+    });
+
+    it('should return the page following the cursor', () => {
+      const mockPage: SessionPage = { content: [mockSession], hasNext: false };
+
+      service.page('cursor').subscribe(page => {
+        expect(page).toEqual(mockPage);
+      });
+
+      const req = httpMock.expectOne('api/session?cursor=cursor');
+      expect(req.request.method).toBe('GET');
+      req.flush(mockPage);
     });
   });
 
@@ -116,6 +131,27 @@ describe('SessionApiService', () => {
       expect(req.request.method).toBe('POST');
       req.flush(null);
     });
+
+    it('should return the waitlist position when the session is full', () => {
+      service.participate('1', '5').subscribe(waitlist => {
+        expect(waitlist).toEqual({ position: 2 });
+      });
+
+      const req = httpMock.expectOne('api/session/1/participate/5');
+      req.flush({ position: 2 }, { status: 202, statusText: 'Accepted' });
+    });
+  });
+
+  describe('waitlistPosition()', () => {
+    it('should return the position of the user on the waitlist', () => {
+      service.waitlistPosition('1', '5').subscribe(waitlist => {
+        expect(waitlist).toEqual({ position: 1 });
+      });
+
+      const req = httpMock.expectOne('api/session/1/waitlist/5');
+      expect(req.request.method).toBe('GET');
+      req.flush({ position: 1 });
+    });
   });
 
   describe('unParticipate()', () => {
@@ -1,7 +1,9 @@
-import { HttpClient } from '@angular/common/http';
+import { HttpClient, HttpParams } from '@angular/common/http';
 import { Injectable } from '@angular/core';
 import { Observable } from 'rxjs';
 import { Session } from '../interfaces/session.interface';
+import { SessionPage } from '../interfaces/sessionPage.interface';
+import { Waitlist } from '../interfaces/waitlist.interface';
 
 @Injectable({
   providedIn: 'root'
@@ -13,8 +15,9 @@ export class SessionApiService {
   constructor(private httpClient: HttpClient) {
   }
 
-  public all(): Observable<Session[]> {
-    return this.httpClient.get<Session[]>(this.pathService);
+  public page(cursor?: string): Observable<SessionPage> {
+    const params = cursor ? new HttpParams().set('cursor', cursor) : undefined;
+    return this.httpClient.get<SessionPage>(this.pathService, { params });
   }
 
   public detail(id: string): Observable<Session> {
@@ -33,8 +36,16 @@ export class SessionApiService {
     return this.httpClient.put<Session>(`${this.pathService}/${id}`, session);
   }
 
-  public participate(id: string, userId: string): Observable<void> {
-    return this.httpClient.post<void>(`${this.pathService}/${id}/participate/${userId}`, null);
+  /**
+   * Emits the position on the waitlist if the session was full (202), or null once the user
+   * participates (200).
+   */
+  public participate(id: string, userId: string): Observable<Waitlist | null> {
+    return this.httpClient.post<Waitlist | null>(`${this.pathService}/${id}/participate/${userId}`, null);
+  }
+
+  public waitlistPosition(id: string, userId: string): Observable<Waitlist> {
+    return this.httpClient.get<Waitlist>(`${this.pathService}/${id}/waitlist/${userId}`);
   }
 
   public unParticipate(id: string, userId: string): Observable<void> {